@@ -6,4 +6,17 @@ public interface Action {
 
     void apply(final Sequencer sequencer);
 
+    /**
+     * Apply the action, encoding any command into the given buffer rather than allocating one. This is how the
+     * {@link codingblackfemales.container.Actioner} applies actions, by default it falls back to {@link #apply(Sequencer)}.
+     */
+    default void apply(final Sequencer sequencer, final CommandBuffer commands){
+        apply(sequencer);
+    }
+
+    /**
+     * Called once the action has been applied, pooled actions go back to their pool here so must not be used again.
+     */
+    default void release(){
+    }
 }
@@ -0,0 +1,82 @@
+package codingblackfemales.action;
+
+import codingblackfemales.sotw.ChildOrder;
+import messages.order.Side;
+
+import java.util.Arrays;
+
+/**
+ * Reusable create and cancel actions, for algo logics which don't want to allocate an action per decision. An action
+ * taken from the pool goes back to it when the {@link codingblackfemales.container.Actioner} has applied it, so the
+ * logic must not keep a reference to it after returning it.
+ *
+ * New actions are only allocated when the pool is empty, which in steady state is never, as an algo has at most a
+ * handful in flight at once. Not thread safe, one pool per algo.
+ */
+public class ActionPool {
+
+    private CreateChildOrder[] creates = new CreateChildOrder[4];
+    private int createCount = 0;
+
+    private CancelChildOrder[] cancels = new CancelChildOrder[4];
+    private int cancelCount = 0;
+
+    private int allocated = 0;
+
+    /**
+     * @deprecated the order is sent for instrument 0, use the overload which takes the instrument id.
+     */
+    @Deprecated
+    public CreateChildOrder createChildOrder(final Side side, final long quantity, final long price){
+        return createChildOrder(side, quantity, price, 0);
+    }
+
+    public CreateChildOrder createChildOrder(final Side side, final long quantity, final long price, final long instrumentId){
+        final CreateChildOrder action;
+
+        if(createCount > 0){
+            action = creates[--createCount];
+            creates[createCount] = null;
+        }else{
+            action = new CreateChildOrder(this);
+            allocated++;
+        }
+
+        return action.set(side, quantity, price, instrumentId);
+    }
+
+    public CancelChildOrder cancelChildOrder(final ChildOrder orderToCancel){
+        final CancelChildOrder action;
+
+        if(cancelCount > 0){
+            action = cancels[--cancelCount];
+            cancels[cancelCount] = null;
+        }else{
+            action = new CancelChildOrder(this);
+            allocated++;
+        }
+
+        return action.set(orderToCancel);
+    }
+
+    /**
+     * The number of actions this pool has ever had to allocate.
+     */
+    public int getAllocated(){
+        return allocated;
+    }
+
+    void release(final CreateChildOrder action){
+        if(createCount == creates.length){
+            creates = Arrays.copyOf(creates, createCount * 2);
+        }
+        creates[createCount++] = action;
+    }
+
+    void release(final CancelChildOrder action){
+        if(cancelCount == cancels.length){
+            cancels = Arrays.copyOf(cancels, cancelCount * 2);
+        }
+        cancels[cancelCount++] = action;
+    }
+}
@@ -0,0 +1,83 @@
+package codingblackfemales.action;
+
+import codingblackfemales.sequencer.Sequencer;
+
+import java.util.Arrays;
+
+/**
+ * A number of actions from one evaluation of the algo, applied in the order they were added, e.g. cancel three
+ * children and re-quote two. The {@link codingblackfemales.container.Actioner} sends them as one burst, the algo is
+ * not evaluated again until the last of them has been sent.
+ *
+ * The batch is cleared when it is released, releasing the actions in it, so an algo can keep one and return it from
+ * every evaluation without allocating.
+ */
+public class BatchAction implements Action {
+
+    private Action[] actions = new Action[8];
+    private int size = 0;
+
+    public BatchAction add(final Action action){
+        if(action == null || action == NoAction.NoAction){
+            return this;
+        }
+
+        if(size == actions.length){
+            actions = Arrays.copyOf(actions, size * 2);
+        }
+
+        actions[size++] = action;
+        return this;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public Action get(final int index){
+        if(index >= size){
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for batch of " + size);
+        }
+        return actions[index];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchAction(");
+        for(int i=0; i<size; i++){
+            if(i > 0){
+                sb.append(',');
+            }
+            sb.append(actions[i]);
+        }
+        return sb.append(')').toString();
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer) {
+        for(int i=0; i<size; i++){
+            actions[i].apply(sequencer);
+        }
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer, final CommandBuffer commands) {
+        //each command is sent before the next is encoded, so they can all share the one buffer
+        for(int i=0; i<size; i++){
+            actions[i].apply(sequencer, commands);
+        }
+    }
+
+    @Override
+    public void release() {
+        for(int i=0; i<size; i++){
+            actions[i].release();
+            actions[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -2,18 +2,29 @@ package codingblackfemales.action;
 
 import codingblackfemales.sequencer.Sequencer;
 import codingblackfemales.sotw.ChildOrder;
-import messages.order.CancelOrderEncoder;
-import messages.order.MessageHeaderEncoder;
-import org.agrona.concurrent.UnsafeBuffer;
-
-import java.nio.ByteBuffer;
 
 public class CancelChildOrder implements Action{
 
-    private final ChildOrder orderToCancel;
+    private ChildOrder orderToCancel;
+
+    //only for callers outside the Actioner, made on the first apply and then reused, so a pooled action never allocates
+    private CommandBuffer ownCommands;
+
+    //set when the action was taken from a pool, it goes back there on release
+    private final ActionPool pool;
 
     public CancelChildOrder(ChildOrder orderToCancel) {
+        this.pool = null;
+        this.orderToCancel = orderToCancel;
+    }
+
+    CancelChildOrder(final ActionPool pool) {
+        this.pool = pool;
+    }
+
+    CancelChildOrder set(final ChildOrder orderToCancel){
         this.orderToCancel = orderToCancel;
+        return this;
     }
 
     @Override
@@ -23,18 +34,23 @@ public class CancelChildOrder implements Action{
 
     @Override
     public void apply(final Sequencer sequencer) {
+        if(ownCommands == null){
+            ownCommands = new CommandBuffer();
+        }
+        apply(sequencer, ownCommands);
+    }
 
-        final CancelOrderEncoder encoder = new CancelOrderEncoder();
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
-
-        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
-        headerEncoder.schemaId(CancelOrderEncoder.SCHEMA_ID);
-        headerEncoder.version(CancelOrderEncoder.SCHEMA_VERSION);
-
-        encoder.orderId(orderToCancel.getOrderId());
+    @Override
+    public void apply(final Sequencer sequencer, final CommandBuffer commands) {
+        sequencer.onCommand(commands.cancelOrder(orderToCancel.getOrderId()));
+    }
 
-        sequencer.onCommand(directBuffer);
+    @Override
+    public void release() {
+        if(pool != null){
+            //don't hold on to the child order while we sit in the pool
+            orderToCancel = null;
+            pool.release(this);
+        }
     }
 }
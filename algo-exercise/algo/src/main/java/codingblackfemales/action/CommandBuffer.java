@@ -0,0 +1,43 @@
+package codingblackfemales.action;
+
+import messages.order.CancelOrderEncoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable buffer and set of encoders for the commands an algo sends to the sequencer, each encode overwrites the
+ * last so the returned buffer is only valid until the next one. Not thread safe.
+ */
+public class CommandBuffer {
+
+    private static final int CAPACITY = 1024;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(CAPACITY));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final CreateOrderEncoder createOrderEncoder = new CreateOrderEncoder();
+    private final CancelOrderEncoder cancelOrderEncoder = new CancelOrderEncoder();
+
+    public DirectBuffer createOrder(final Side side, final long quantity, final long price, final long instrumentId){
+        createOrderEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        headerEncoder.schemaId(CreateOrderEncoder.SCHEMA_ID);
+        headerEncoder.version(CreateOrderEncoder.SCHEMA_VERSION);
+        createOrderEncoder.instrumentId(instrumentId);
+        createOrderEncoder.price(price);
+        createOrderEncoder.quantity(quantity);
+        createOrderEncoder.side(side);
+        return buffer;
+    }
+
+    public DirectBuffer cancelOrder(final long orderId){
+        cancelOrderEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        headerEncoder.schemaId(CancelOrderEncoder.SCHEMA_ID);
+        headerEncoder.version(CancelOrderEncoder.SCHEMA_VERSION);
+        cancelOrderEncoder.orderId(orderId);
+        return buffer;
+    }
+}
@@ -1,29 +1,47 @@
 package codingblackfemales.action;
 
 import codingblackfemales.sequencer.Sequencer;
-import messages.order.CreateOrderEncoder;
-import messages.order.MessageHeaderEncoder;
 import messages.order.Side;
-import org.agrona.concurrent.UnsafeBuffer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.nio.ByteBuffer;
 
 public class CreateChildOrder implements Action {
 
-    private static final Logger logger = LoggerFactory.getLogger(CreateChildOrder.class);
-    private final long quantity;
-    private final long price;
+    private long quantity;
+    private long price;
+
+    private Side side;
 
-    private final Side side;
+    private long instrumentId;
 
+    //only for callers outside the Actioner, made on the first apply and then reused, so a pooled action never allocates
+    private CommandBuffer ownCommands;
 
+    //set when the action was taken from a pool, it goes back there on release
+    private final ActionPool pool;
 
+    /**
+     * @deprecated the order is sent for instrument 0, use the constructor which takes the instrument id, for example
+     * with {@code state.getInstrumentId()}.
+     */
+    @Deprecated
     public CreateChildOrder(final Side side, final long quantity, final long price) {
+        this(side, quantity, price, 0);
+    }
+
+    public CreateChildOrder(final Side side, final long quantity, final long price, final long instrumentId) {
+        this.pool = null;
+        set(side, quantity, price, instrumentId);
+    }
+
+    CreateChildOrder(final ActionPool pool) {
+        this.pool = pool;
+    }
+
+    CreateChildOrder set(final Side side, final long quantity, final long price, final long instrumentId){
         this.quantity = quantity;
         this.price = price;
         this.side = side;
+        this.instrumentId = instrumentId;
+        return this;
     }
 
     @Override
@@ -33,17 +51,21 @@ public class CreateChildOrder implements Action {
 
     @Override
     public void apply(Sequencer sequencer) {
-        final CreateOrderEncoder encoder = new CreateOrderEncoder();
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
-
-        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
-        headerEncoder.schemaId(CreateOrderEncoder.SCHEMA_ID);
-        headerEncoder.version(CreateOrderEncoder.SCHEMA_VERSION);
-        encoder.price(price);
-        encoder.quantity(quantity);
-        encoder.side(side);
-        sequencer.onCommand(directBuffer);
+        if(ownCommands == null){
+            ownCommands = new CommandBuffer();
+        }
+        apply(sequencer, ownCommands);
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer, final CommandBuffer commands) {
+        sequencer.onCommand(commands.createOrder(side, quantity, price, instrumentId));
+    }
+
+    @Override
+    public void release() {
+        if(pool != null){
+            pool.release(this);
+        }
     }
 }
@@ -1,8 +1,7 @@
 package codingblackfemales.algo;
 
 import codingblackfemales.action.Action;
-import codingblackfemales.action.CancelChildOrder;
-import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.action.ActionPool;
 import codingblackfemales.action.NoAction;
 import codingblackfemales.sotw.SimpleAlgoState;
 import codingblackfemales.sotw.marketdata.BidLevel;
@@ -15,6 +14,8 @@ public class AddCancelAlgoLogic implements AlgoLogic {
 
     private static final Logger logger = LoggerFactory.getLogger(AddCancelAlgoLogic.class);
 
+    private final ActionPool actions = new ActionPool();
+
     @Override
     public Action evaluate(SimpleAlgoState state) {
 
@@ -40,7 +41,7 @@ public class AddCancelAlgoLogic implements AlgoLogic {
             if (option.isPresent()) {
                 var childOrder = option.get();
                 logger.info("[ADDCANCELALGO] Cancelling order:" + childOrder);
-                return new CancelChildOrder(childOrder);
+                return actions.cancelChildOrder(childOrder);
             }
             else{
                 return NoAction.NoAction;
@@ -50,7 +51,7 @@ public class AddCancelAlgoLogic implements AlgoLogic {
             final long price = level.price;
             final long quantity = level.quantity;
             logger.info("[ADDCANCELALGO] Adding order for" + quantity + "@" + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return actions.createChildOrder(Side.BUY, quantity, price, state.getInstrumentId());
         }
     }
 }
@@ -1,7 +1,7 @@
 package codingblackfemales.algo;
 
 import codingblackfemales.action.Action;
-import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.action.ActionPool;
 import codingblackfemales.sotw.SimpleAlgoState;
 import codingblackfemales.sotw.marketdata.BidLevel;
 import codingblackfemales.util.Util;
@@ -15,6 +15,8 @@ public class PassiveAlgoLogic implements AlgoLogic{
 
     private static final Logger logger = LoggerFactory.getLogger(PassiveAlgoLogic.class);
 
+    private final ActionPool actions = new ActionPool();
+
     @Override
     public Action evaluate(SimpleAlgoState state) {
 
@@ -33,7 +35,7 @@ public class PassiveAlgoLogic implements AlgoLogic{
         if(state.getChildOrders().size() < 3){
             //then keep creating a new one
             logger.info("[PASSIVEALGO] Have:" + state.getChildOrders().size() + " children, want 3, joining passive side of book with: " + quantity + " @ " + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return actions.createChildOrder(Side.BUY, quantity, price, state.getInstrumentId());
         }else{
             logger.info("[PASSIVEALGO] Have:" + state.getChildOrders().size() + " children, want 3, done.");
             return NoAction;
@@ -1,7 +1,7 @@
 package codingblackfemales.algo;
 
 import codingblackfemales.action.Action;
-import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.action.ActionPool;
 import codingblackfemales.sotw.SimpleAlgoState;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.util.Util;
@@ -15,6 +15,8 @@ public class SniperAlgoLogic implements AlgoLogic {
 
     private static final Logger logger = LoggerFactory.getLogger(SniperAlgoLogic.class);
 
+    private final ActionPool actions = new ActionPool();
+
     @Override
     public Action evaluate(SimpleAlgoState state) {
 
@@ -34,7 +36,7 @@ public class SniperAlgoLogic implements AlgoLogic {
         if (state.getChildOrders().size() < 5) {
             //then keep creating a new one
             logger.info("[SNIPERALGO] Have:" + state.getChildOrders().size() + " children, want 5, sniping far touch of book with: " + quantity + " @ " + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return actions.createChildOrder(Side.BUY, quantity, price, state.getInstrumentId());
         } else {
             logger.info("[SNIPERALGO] Have:" + state.getChildOrders().size() + " children, want 5, done.");
             return NoAction;
@@ -1,22 +1,61 @@
 package codingblackfemales.container;
 
 import codingblackfemales.action.Action;
+import codingblackfemales.action.BatchAction;
+import codingblackfemales.action.CommandBuffer;
 import codingblackfemales.sequencer.Sequencer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 
+/**
+ * Applies the algo's actions to the sequencer, encoding their commands into reusable buffers.
+ *
+ * Sending a command can dispatch straight back into the algo container, which may send another action before the
+ * first has been dispatched to everyone, so each level of nesting gets its own buffer.
+ *
+ * While a {@link BatchAction} is being sent {@link #isSendingBatch()} is true, the container uses it to hold off
+ * evaluating until the whole batch is out, so its commands go to the sequencer as one burst. A single action is
+ * sent as before, the algo can react to it while it is being dispatched.
+ */
 public class Actioner {
     private static final Logger logger = LoggerFactory.getLogger(Actioner.class);
 
     private final Sequencer sequencer;
 
+    private CommandBuffer[] commandBuffers = new CommandBuffer[]{new CommandBuffer()};
+    private int depth = 0;
+    private boolean sendingBatch = false;
+
     public Actioner(Sequencer sequencer) {
         this.sequencer = sequencer;
     }
 
+    public boolean isSendingBatch(){
+        return sendingBatch;
+    }
+
     public void processAction(final Action action){
-        logger.info("[ALGO] Actioner, sending action:" + action);
-        action.apply(sequencer);
+        if(logger.isInfoEnabled()){
+            logger.info("[ALGO] Actioner, sending action:" + action);
+        }
+
+        if(depth == commandBuffers.length){
+            commandBuffers = Arrays.copyOf(commandBuffers, depth + 1);
+            commandBuffers[depth] = new CommandBuffer();
+        }
+
+        final CommandBuffer commands = commandBuffers[depth++];
+        final boolean wasSendingBatch = sendingBatch;
+        sendingBatch = wasSendingBatch || action instanceof BatchAction;
+
+        try {
+            action.apply(sequencer, commands);
+        } finally {
+            sendingBatch = wasSendingBatch;
+            depth--;
+            action.release();
+        }
     }
 }
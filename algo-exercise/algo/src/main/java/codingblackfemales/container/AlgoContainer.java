@@ -3,6 +3,7 @@ package codingblackfemales.container;
 import codingblackfemales.action.NoAction;
 import codingblackfemales.algo.AlgoLogic;
 import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.MessageBatch;
 import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
 import codingblackfemales.sotw.SimpleAlgoState;
@@ -53,13 +54,33 @@ public class AlgoContainer implements Consumer {
         }
     }
 
+    /**
+     * The services ahead of us have already taken in the whole batch, so we only need to evaluate once at the end.
+     */
+    @Override
+    public void onBatch(MessageBatch batch){
+        if(runTrigger.shouldRun()){
+            runAlgoLogic();
+        }
+    }
+
+    /**
+     * Anything our own commands trigger while the actioner is sending a batch is evaluated once the batch is out,
+     * rather than part way through it.
+     */
     private void runAlgoLogic(){
-        final var action = logic.evaluate(state);
+        if(actioner.isSendingBatch()){
+            return;
+        }
+
+        while(runTrigger.shouldRun()){
+            final var action = logic.evaluate(state);
 
-        runTrigger.hasRun();
+            runTrigger.hasRun();
 
-        if(action !=null && (!action.equals(NoAction.NoAction))){
-            actioner.processAction(action);
+            if(action !=null && (!action.equals(NoAction.NoAction))){
+                actioner.processAction(action);
+            }
         }
     }
 
@@ -0,0 +1,12 @@
+package codingblackfemales.marketdata.api;
+
+import java.util.List;
+
+public interface BookDelta extends MarketDataMessage {
+
+    default UpdateType updateType() {
+        return UpdateType.BookDelta;
+    }
+
+    List<BookDeltaEntry> levels();
+}
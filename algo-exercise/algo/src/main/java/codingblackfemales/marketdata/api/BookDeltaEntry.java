@@ -0,0 +1,60 @@
+package codingblackfemales.marketdata.api;
+
+import messages.marketdata.BookSide;
+import messages.marketdata.UpdateAction;
+
+public class BookDeltaEntry {
+    BookSide side;
+    UpdateAction action;
+    long price;
+    long size;
+
+    public BookDeltaEntry() {
+    }
+
+    public BookSide side() {
+        return side;
+    }
+
+    public UpdateAction action() {
+        return action;
+    }
+
+    public long price(){
+        return price;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public BookDeltaEntry setSide(BookSide side) {
+        this.side = side;
+        return this;
+    }
+
+    public BookDeltaEntry setAction(UpdateAction action) {
+        this.action = action;
+        return this;
+    }
+
+    public BookDeltaEntry setPrice(long price) {
+        this.price = price;
+        return this;
+    }
+
+    public BookDeltaEntry setSize(long size) {
+        this.size = size;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BookDeltaEntry{" +
+                "side=" + side +
+                ", action=" + action +
+                ", price=" + price +
+                ", size=" + size +
+                '}';
+    }
+}
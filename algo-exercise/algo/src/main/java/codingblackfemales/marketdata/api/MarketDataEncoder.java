@@ -12,6 +12,7 @@ public class MarketDataEncoder {
     private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
     private final AskBookUpdateEncoder askBookUpdateEncoder = new AskBookUpdateEncoder();
     private final BidBookUpdateEncoder bidBookUpdateEncoder = new BidBookUpdateEncoder();
+    private final BookDeltaEncoder bookDeltaEncoder = new BookDeltaEncoder();
 
     public UnsafeBuffer encode(final MarketDataMessage message) {
         switch (message.updateType()) {
@@ -21,6 +22,8 @@ public class MarketDataEncoder {
                 return doEncode((AskBookUpdate) message);
             case BidUpdate:
                 return doEncode((BidBookUpdate) message);
+            case BookDelta:
+                return doEncode((BookDelta) message);
             default:
                 throw new RuntimeException(format("Unsupported updateType=[%s] message=[%s]", message.updateType(), message));
         }
@@ -75,6 +78,20 @@ public class MarketDataEncoder {
         return directBuffer;
     }
 
+    private UnsafeBuffer doEncode(final BookDelta update) {
+        final UnsafeBuffer directBuffer = buffer();
+        bookDeltaEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        bookDeltaEncoder.venue(update.venue());
+        bookDeltaEncoder.instrumentId(update.instrumentId());
+        bookDeltaEncoder.source(Source.STREAM);
+        BookDeltaEncoder.LevelsEncoder levelsEncoder = bookDeltaEncoder.levelsCount(update.levels().size());
+        for (int i = 0; i < update.levels().size(); i++) {
+            BookDeltaEntry entry = update.levels().get(i);
+            levelsEncoder.next().side(entry.side()).action(entry.action()).price(entry.price()).size(entry.size());
+        }
+        return directBuffer;
+    }
+
     private UnsafeBuffer buffer() {
         final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
         return new UnsafeBuffer(byteBuffer);
@@ -2,12 +2,14 @@ package codingblackfemales.marketdata.api;
 
 import codingblackfemales.marketdata.impl.AskBookUpdateImpl;
 import codingblackfemales.marketdata.impl.BidBookUpdateImpl;
+import codingblackfemales.marketdata.impl.BookDeltaImpl;
 import codingblackfemales.marketdata.impl.BookUpdateImpl;
 
 public enum UpdateType {
     BookUpdate(BookUpdateImpl.class),
     AskUpdate(AskBookUpdateImpl.class),
     BidUpdate(BidBookUpdateImpl.class),
+    BookDelta(BookDeltaImpl.class),
     ;
     private final Class<? extends MarketDataMessage> messageClass;
 
@@ -0,0 +1,43 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.BookDelta;
+import codingblackfemales.marketdata.api.BookDeltaEntry;
+import messages.marketdata.Venue;
+
+import java.util.List;
+
+public class BookDeltaImpl implements BookDelta {
+    private long instrumentId;
+    private Venue venue;
+    private List<BookDeltaEntry> levels;
+
+    public BookDeltaImpl(long instrumentId, Venue venue, List<BookDeltaEntry> levels) {
+        this.instrumentId = instrumentId;
+        this.venue = venue;
+        this.levels = levels;
+    }
+
+    @Override
+    public List<BookDeltaEntry> levels() {
+        return levels;
+    }
+
+    @Override
+    public long instrumentId() {
+        return instrumentId;
+    }
+
+    @Override
+    public Venue venue() {
+        return venue;
+    }
+
+    @Override
+    public String toString() {
+        return "BookDeltaImpl{" +
+                "instrumentId=" + instrumentId +
+                ", venue=" + venue +
+                ", levels=" + levels +
+                '}';
+    }
+}
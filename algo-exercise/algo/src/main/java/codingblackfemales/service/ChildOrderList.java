@@ -0,0 +1,172 @@
+package codingblackfemales.service;
+
+import codingblackfemales.sotw.ChildOrder;
+
+import java.util.AbstractSequentialList;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A list of child orders linked through nodes the {@link OrderService} keeps for each child, so moving a child from
+ * one list to another is O(1) and the lists keep the order children arrived in. The list itself is read only, the
+ * service changes it through {@link #addLast(Node)} and {@link #remove(Node)}.
+ */
+final class ChildOrderList extends AbstractSequentialList<ChildOrder> {
+
+    /**
+     * A child's place in one list, a child has a node for each list it can be in and the node is reused each time it
+     * goes back in.
+     */
+    static final class Node {
+        private final ChildOrder child;
+        private Node previous;
+        private Node next;
+        private ChildOrderList list;
+
+        Node(final ChildOrder child) {
+            this.child = child;
+        }
+    }
+
+    private Node head;
+    private Node tail;
+    private int size = 0;
+
+    void addLast(final Node node){
+        if(node.list != null){
+            throw new IllegalStateException("Child order " + node.child.getOrderId() + " is already in a list");
+        }
+
+        node.list = this;
+        node.previous = tail;
+        node.next = null;
+
+        if(tail == null){
+            head = node;
+        }else{
+            tail.next = node;
+        }
+
+        tail = node;
+        size++;
+        modCount++;
+    }
+
+    void remove(final Node node){
+        if(node.list != this){
+            throw new IllegalStateException("Child order " + node.child.getOrderId() + " is not in this list");
+        }
+
+        if(node.previous == null){
+            head = node.next;
+        }else{
+            node.previous.next = node.next;
+        }
+
+        if(node.next == null){
+            tail = node.previous;
+        }else{
+            node.next.previous = node.previous;
+        }
+
+        node.list = null;
+        node.previous = null;
+        node.next = null;
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ListIterator<ChildOrder> listIterator(final int index) {
+        if(index < 0 || index > size){
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+
+        //start from whichever end is nearer
+        Node next;
+        if(index <= size / 2){
+            next = head;
+            for(int i=0; i<index; i++){
+                next = next.next;
+            }
+        }else{
+            next = null;
+            for(int i=size; i>index; i--){
+                next = next == null ? tail : next.previous;
+            }
+        }
+
+        return new Iterator(next, index);
+    }
+
+    private final class Iterator implements ListIterator<ChildOrder> {
+        private Node next;
+        private int nextIndex;
+
+        private Iterator(final Node next, final int nextIndex) {
+            this.next = next;
+            this.nextIndex = nextIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public ChildOrder next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            final ChildOrder child = next.child;
+            next = next.next;
+            nextIndex++;
+            return child;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public ChildOrder previous() {
+            if(!hasPrevious()){
+                throw new NoSuchElementException();
+            }
+            next = next == null ? tail : next.previous;
+            nextIndex--;
+            return next.child;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Child order lists are read only");
+        }
+
+        @Override
+        public void set(final ChildOrder child) {
+            throw new UnsupportedOperationException("Child order lists are read only");
+        }
+
+        @Override
+        public void add(final ChildOrder child) {
+            throw new UnsupportedOperationException("Child order lists are read only");
+        }
+    }
+}
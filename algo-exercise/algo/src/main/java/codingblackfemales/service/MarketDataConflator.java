@@ -0,0 +1,307 @@
+package codingblackfemales.service;
+
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.LongToObjOpenAddressingMap;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.DecodedMessage;
+import codingblackfemales.sequencer.util.MessageLengthDecoder;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An optional stage in front of the {@link MarketDataService} (and usually the algo container after it) which holds
+ * market data back until the network tells us it has caught up, then passes on only what is needed to get each
+ * instrument's book up to date. When the algo is keeping up that is every message as it arrives, when it falls behind:
+ *
+ * 1) a full book update throws away everything still held for its instrument
+ * 2) consecutive deltas for an instrument from the same venue and source are merged into one, keeping the last change
+ *    at each price
+ *
+ * Anything which isn't market data is passed straight on, after anything held back, so the order between market data
+ * and order events is kept. Not thread safe, it should be driven by a single network thread.
+ */
+public class MarketDataConflator implements Consumer {
+
+    private final Consumer[] downstream;
+
+    private final DecodedMessage decoded = new DecodedMessage();
+    private final MessageLengthDecoder lengthDecoder = new MessageLengthDecoder();
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookDeltaEncoder deltaEncoder = new BookDeltaEncoder();
+
+    private final LongToObjMap<PendingBook> pendingBooks = new LongToObjOpenAddressingMap<>();
+
+    //instruments with something held back, in the order they first changed, double buffered for the same reason
+    //as the message lists below
+    private ArrayList<PendingBook> changed = new ArrayList<>();
+    private ArrayList<PendingBook> releasing = new ArrayList<>();
+
+    //the messages being released are swapped out for this, so anything arriving while we release is held separately
+    private MessageList spare = new MessageList();
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+
+    private boolean inRelease = false;
+    private long conflatedCount = 0;
+
+    public MarketDataConflator(final Consumer... downstream) {
+        this.downstream = downstream;
+    }
+
+    /**
+     * The number of updates which were never passed on because a later one made them redundant.
+     */
+    public long getConflatedCount(){
+        return conflatedCount;
+    }
+
+    public int getPendingInstruments(){
+        return changed.size();
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        onDecoded(decoded.wrap(buffer));
+    }
+
+    @Override
+    public void onDecoded(final DecodedMessage message) {
+        if(!message.isMarketData() || !message.isKnown()){
+            //keep the ordering, unless we are being re-entered while releasing in which case we already are
+            if(!inRelease){
+                release();
+            }
+            send(message.buffer());
+            return;
+        }
+
+        final int templateId = message.templateId();
+
+        if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+            pendingBook(message.bookUpdate().instrumentId()).onSnapshot(message.buffer());
+        }else if(templateId == BookDeltaDecoder.TEMPLATE_ID){
+            final BookDeltaDecoder delta = message.bookDelta();
+            pendingBook(delta.instrumentId()).onDelta(delta, message.sequenceNumber());
+        }else if(templateId == AskBookUpdateDecoder.TEMPLATE_ID){
+            pendingBook(message.askBookUpdate().instrumentId()).onSideUpdate(message.buffer());
+        }else if(templateId == BidBookUpdateDecoder.TEMPLATE_ID){
+            pendingBook(message.bidBookUpdate().instrumentId()).onSideUpdate(message.buffer());
+        }else{
+            send(message.buffer());
+        }
+    }
+
+    @Override
+    public void onCaughtUp() {
+        release();
+    }
+
+    /**
+     * Pass on everything held back, including anything which arrives as a result of passing it on.
+     */
+    public void release(){
+        if(inRelease){
+            return;
+        }
+
+        inRelease = true;
+        try {
+            while(!changed.isEmpty()){
+                final ArrayList<PendingBook> books = changed;
+                changed = releasing;
+                releasing = books;
+
+                for(int i=0; i<books.size(); i++){
+                    releaseOne(books.get(i));
+                }
+
+                books.clear();
+            }
+        } finally {
+            inRelease = false;
+        }
+    }
+
+    private void releaseOne(final PendingBook book){
+        book.sealDelta();
+        book.changed = false;
+
+        final MessageList messages = book.messages;
+        book.messages = spare;
+        spare = messages;
+
+        for(int i=0; i<messages.count; i++){
+            message.wrap(messages.buffer, messages.offsets[i], messages.lengths[i]);
+            send(message);
+        }
+
+        messages.clear();
+    }
+
+    private void send(final DirectBuffer buffer){
+        for(Consumer consumer : downstream){
+            consumer.onMessage(buffer);
+        }
+    }
+
+    private PendingBook pendingBook(final long instrumentId){
+        PendingBook book = pendingBooks.get(instrumentId);
+
+        if(book == null){
+            book = new PendingBook();
+            pendingBooks.put(instrumentId, book);
+        }
+
+        if(!book.changed){
+            book.changed = true;
+            changed.add(book);
+        }
+
+        return book;
+    }
+
+    /**
+     * Copies of the messages held back for one instrument, packed into a single growable buffer.
+     */
+    private static final class MessageList {
+        private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(1024);
+        private int[] offsets = new int[8];
+        private int[] lengths = new int[8];
+        private int count = 0;
+        private int limit = 0;
+
+        void add(final DirectBuffer source, final int length){
+            buffer.putBytes(limit, source, 0, length);
+            added(length);
+        }
+
+        //for messages encoded straight into the buffer at the limit
+        void added(final int length){
+            if(count == offsets.length){
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+
+            offsets[count] = limit;
+            lengths[count] = length;
+            count++;
+            limit += length;
+        }
+
+        void clear(){
+            count = 0;
+            limit = 0;
+        }
+    }
+
+    private final class PendingBook {
+        private MessageList messages = new MessageList();
+        private boolean changed = false;
+
+        //the delta being merged, kept as levels until something else arrives or we release it
+        private boolean hasDelta = false;
+        private long deltaInstrumentId;
+        private long deltaSequenceNumber;
+        private Venue deltaVenue;
+        private Source deltaSource;
+        private int deltaLevels = 0;
+        private BookSide[] sides = new BookSide[16];
+        private UpdateAction[] actions = new UpdateAction[16];
+        private long[] prices = new long[16];
+        private long[] sizes = new long[16];
+
+        void onSnapshot(final DirectBuffer buffer){
+            //a full book replaces everything before it
+            conflatedCount += messages.count + (hasDelta ? 1 : 0);
+            messages.clear();
+            hasDelta = false;
+            deltaLevels = 0;
+
+            messages.add(buffer, lengthDecoder.length(buffer));
+        }
+
+        void onSideUpdate(final DirectBuffer buffer){
+            sealDelta();
+            messages.add(buffer, lengthDecoder.length(buffer));
+        }
+
+        void onDelta(final BookDeltaDecoder delta, final long sequenceNumber){
+            final Venue venue = delta.venue();
+            final Source source = delta.source();
+
+            //a delta from another venue or source is not merged with the one we have, it follows it
+            if(hasDelta && (venue != deltaVenue || source != deltaSource)){
+                sealDelta();
+            }
+
+            if(hasDelta){
+                conflatedCount++;
+            }
+
+            hasDelta = true;
+            deltaInstrumentId = delta.instrumentId();
+            deltaSequenceNumber = sequenceNumber;
+            deltaVenue = venue;
+            deltaSource = source;
+
+            for(BookDeltaDecoder.LevelsDecoder level : delta.levels()){
+                mergeLevel(level.side(), level.action(), level.price(), level.size());
+            }
+        }
+
+        /**
+         * Every action sets the level at its price outright, so the last one at a price is all we need to keep.
+         */
+        private void mergeLevel(final BookSide side, final UpdateAction action, final long price, final long size){
+            for(int i=0; i<deltaLevels; i++){
+                if(sides[i] == side && prices[i] == price){
+                    actions[i] = action;
+                    sizes[i] = size;
+                    return;
+                }
+            }
+
+            if(deltaLevels == prices.length){
+                sides = Arrays.copyOf(sides, deltaLevels * 2);
+                actions = Arrays.copyOf(actions, deltaLevels * 2);
+                prices = Arrays.copyOf(prices, deltaLevels * 2);
+                sizes = Arrays.copyOf(sizes, deltaLevels * 2);
+            }
+
+            sides[deltaLevels] = side;
+            actions[deltaLevels] = action;
+            prices[deltaLevels] = price;
+            sizes[deltaLevels] = size;
+            deltaLevels++;
+        }
+
+        /**
+         * Encode the merged delta onto the end of the held messages.
+         */
+        void sealDelta(){
+            if(!hasDelta){
+                return;
+            }
+
+            deltaEncoder.wrapAndApplyHeader(messages.buffer, messages.limit, headerEncoder);
+            headerEncoder.sequencerNumber(deltaSequenceNumber);
+            deltaEncoder.instrumentId(deltaInstrumentId);
+            deltaEncoder.venue(deltaVenue);
+            deltaEncoder.source(deltaSource);
+
+            final BookDeltaEncoder.LevelsEncoder levels = deltaEncoder.levelsCount(deltaLevels);
+            for(int i=0; i<deltaLevels; i++){
+                levels.next().side(sides[i]).action(actions[i]).price(prices[i]).size(sizes[i]);
+            }
+
+            messages.added(headerEncoder.encodedLength() + deltaEncoder.encodedLength());
+
+            hasDelta = false;
+            deltaLevels = 0;
+        }
+    }
+}
@@ -1,149 +1,293 @@
 package codingblackfemales.service;
 
+import codingblackfemales.collection.extrusive.LongToIntOpenAddressingMap;
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.LongToObjOpenAddressingMap;
 import codingblackfemales.container.RunTrigger;
 import codingblackfemales.sequencer.event.MarketDataEventListener;
+import codingblackfemales.sequencer.net.DecodedMessage;
+import codingblackfemales.sequencer.net.MessageBatch;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
+import codingblackfemales.sotw.marketdata.InstrumentBook;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookSide;
 import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.UpdateAction;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+
+/**
+ * The algo's view of the market, one {@link InstrumentBook} per instrument, kept in a primitive long keyed map so an
+ * update for one instrument never touches another's book. A book is allocated the first time we see its instrument,
+ * after that nothing is allocated per tick.
+ *
+ * The methods which don't take an instrument id read the book of the instrument which was updated last, which is all
+ * a single instrument algo needs.
+ */
 public class MarketDataService extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(MarketDataService.class);
 
-    private int bidLength = 0;
-    private int askLength = 0;
+    public static final int DEFAULT_BOOK_DEPTH = 15;
+
+    private final int depth;
+    private final LongToObjMap<InstrumentBook> books = new LongToObjOpenAddressingMap<>();
+
+    //the book that was updated last, an empty book until the first update arrives
+    private InstrumentBook current;
 
-    private long instrumentId;
-    private final BidLevel[] bidBook = new BidLevel[15];
-    private final AskLevel[] askBook = new AskLevel[15];
     private final RunTrigger runTrigger;
 
+    //a decoded message over its own view for each place in a batch, grown to the largest batch we have seen, so each
+    //message is decoded once when we look for full books and handed on as it is
+    private DecodedMessage[] batchMessages = new DecodedMessage[0];
+    private UnsafeBuffer[] batchViews = new UnsafeBuffer[0];
+    private boolean[] batchSkip = new boolean[0];
+
+    //instrument id to the number of the batch with a full book for it later than the message we are looking at
+    private final LongToIntOpenAddressingMap laterFullBook = new LongToIntOpenAddressingMap(0);
+    private int batchNumber = 0;
+
     public MarketDataService(RunTrigger runTrigger) {
+        this(runTrigger, DEFAULT_BOOK_DEPTH);
+    }
+
+    /**
+     * @param depth the number of levels kept on each side of each book, anything deeper is dropped
+     */
+    public MarketDataService(RunTrigger runTrigger, int depth) {
         this.runTrigger = runTrigger;
+        this.depth = depth;
+        this.current = new InstrumentBook(0, depth);
     }
 
     public BidLevel getBidLevel(int i){
-        return bidBook[i];
+        return current.getBidLevel(i);
     }
 
     public AskLevel getAskLevel(int i){
-        return askBook[i];
+        return current.getAskLevel(i);
+    }
+
+    public long getBidPrice(int i){
+        return current.getBidPrice(i);
+    }
+
+    public long getBidQuantity(int i){
+        return current.getBidQuantity(i);
+    }
+
+    public long getAskPrice(int i){
+        return current.getAskPrice(i);
+    }
+
+    public long getAskQuantity(int i){
+        return current.getAskQuantity(i);
     }
 
     public int getBidLength(){
-        return bidLength;
+        return current.getBidLength();
     }
 
     public int getAskLength(){
-        return askLength;
+        return current.getAskLength();
     }
 
-    public long getInstrumentId(){return instrumentId;}
+    public int getDepth(){
+        return depth;
+    }
 
-    private static void empty(BidLevel[] levels){
-        for (int i=0; i<levels.length; i++) {
-            levels[i] = null;
-        }
+    public long getInstrumentId(){return current.getInstrumentId();}
+
+    /**
+     * The book for the instrument, or null if we have not had any market data for it.
+     */
+    public InstrumentBook getBook(long instrumentId){
+        return books.get(instrumentId);
     }
 
-    private static void empty(AskLevel[] levels){
-        for (int i=0; i<levels.length; i++) {
-            levels[i] = null;
-        }
+    public int getInstrumentCount(){
+        return books.size();
     }
 
+    /**
+     * A full book update replaces both sides of its instrument's book, so any update for the same instrument before
+     * the last full book in the batch is skipped. We walk the batch once from the end, noting the instruments we have
+     * passed a full book for, then hand on what is left in order.
+     */
     @Override
-    public void onBookUpdate(BookUpdateDecoder bookUpdate) {
+    public void onBatch(MessageBatch batch) {
 
-        int bookLevel = 0;
+        final int size = batch.size();
 
-        instrumentId = bookUpdate.instrumentId();
+        if(batchMessages.length < size){
+            growBatch(size);
+        }
 
-        empty(bidBook);
+        //stamping the map with the batch number means we never have to clear it
+        batchNumber++;
+
+        for(int i=size-1; i>=0; i--){
+            batchViews[i].wrap(batch.buffer(), batch.offset(i), batch.length(i));
+            final DecodedMessage message = batchMessages[i].wrap(batchViews[i]);
+
+            batchSkip[i] = false;
+
+            if(message.isMarketData() && message.isKnown()){
+                final int templateId = message.templateId();
+                final long instrumentId;
+
+                if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+                    instrumentId = message.bookUpdate().instrumentId();
+                }else if(templateId == AskBookUpdateDecoder.TEMPLATE_ID){
+                    instrumentId = message.askBookUpdate().instrumentId();
+                }else if(templateId == BidBookUpdateDecoder.TEMPLATE_ID){
+                    instrumentId = message.bidBookUpdate().instrumentId();
+                }else if(templateId == BookDeltaDecoder.TEMPLATE_ID){
+                    instrumentId = message.bookDelta().instrumentId();
+                }else{
+                    continue;
+                }
+
+                if(laterFullBook.get(instrumentId) == batchNumber){
+                    batchSkip[i] = true;
+                }else if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+                    laterFullBook.put(instrumentId, batchNumber);
+                }
+            }
+        }
 
-        for(BookUpdateDecoder.BidBookDecoder decoder : bookUpdate.bidBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            bidBook[bookLevel] = new BidLevel();
-            bidBook[bookLevel].setPrice(price);
-            bidBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
+        for(int i=0; i<size; i++){
+            if(!batchSkip[i]){
+                onDecoded(batchMessages[i]);
+            }
+        }
+    }
+
+    private void growBatch(final int size){
+        final int from = batchMessages.length;
 
-            bookLevel+= 1;
-            bidLength = bookLevel;
+        batchMessages = Arrays.copyOf(batchMessages, size);
+        batchViews = Arrays.copyOf(batchViews, size);
+        batchSkip = new boolean[size];
 
+        for(int i=from; i<size; i++){
+            batchMessages[i] = new DecodedMessage();
+            batchViews[i] = new UnsafeBuffer(0, 0);
         }
+    }
 
-        empty(askBook);
+    @Override
+    public void onBookUpdate(BookUpdateDecoder bookUpdate) {
 
-        bookLevel = 0;
+        final InstrumentBook book = bookFor(bookUpdate.instrumentId());
 
-        for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdate.askBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
+        int bookLevel = 0;
 
-            askBook[bookLevel] = new AskLevel();
-            askBook[bookLevel].setPrice(price);
-            askBook[bookLevel].setQuantity(quantity);
+        for(BookUpdateDecoder.BidBookDecoder decoder : bookUpdate.bidBook()){
+            setBid(book, bookLevel++, decoder.price(), decoder.size());
+        }
 
-            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
+        book.setBidLength(bookLevel);
+
+        bookLevel = 0;
 
-            bookLevel+= 1;
-            askLength = bookLevel;
+        for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdate.askBook()){
+            setAsk(book, bookLevel++, decoder.price(), decoder.size());
         }
 
+        book.setAskLength(bookLevel);
+
         runTrigger.triggerRun();
     }
 
     @Override
     public void onAskBook(AskBookUpdateDecoder askBookDec){
 
-        instrumentId = askBookDec.instrumentId();
-
-        empty(askBook);
+        final InstrumentBook book = bookFor(askBookDec.instrumentId());
 
         int bookLevel = 0;
 
         for(AskBookUpdateDecoder.AskBookDecoder decoder : askBookDec.askBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            askBook[bookLevel] = new AskLevel();
-            askBook[bookLevel].setPrice(price);
-            askBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
-
-            bookLevel+= 1;
-            askLength = bookLevel;
-
+            setAsk(book, bookLevel++, decoder.price(), decoder.size());
         }
 
+        book.setAskLength(bookLevel);
+
         runTrigger.triggerRun();
     }
 
     @Override
     public void onBidBook(BidBookUpdateDecoder bidBookDec) {
-        int bookLevel = 0;
 
-        empty(bidBook);
+        final InstrumentBook book = bookFor(bidBookDec.instrumentId());
 
-        instrumentId = bidBookDec.instrumentId();
+        int bookLevel = 0;
 
         for(BidBookUpdateDecoder.BidBookDecoder decoder : bidBookDec.bidBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            bidBook[bookLevel] = new BidLevel();
-            bidBook[bookLevel].setPrice(price);
-            bidBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
+            setBid(book, bookLevel++, decoder.price(), decoder.size());
+        }
+
+        book.setBidLength(bookLevel);
 
-            bookLevel+= 1;
-            bidLength = bookLevel;
+        runTrigger.triggerRun();
+    }
+
+    /**
+     * Apply just the levels which changed, a modify for a price we don't have is treated as an add.
+     */
+    @Override
+    public void onBookDelta(BookDeltaDecoder bookDelta) {
+
+        final InstrumentBook book = bookFor(bookDelta.instrumentId());
+
+        for(BookDeltaDecoder.LevelsDecoder level : bookDelta.levels()){
+            final boolean bid = level.side() == BookSide.BID;
+            final long price = level.price();
+
+            if(level.action() == UpdateAction.DELETE){
+                if(bid){
+                    book.deleteBid(price);
+                }else{
+                    book.deleteAsk(price);
+                }
+            }else if(bid){
+                book.addBid(price, level.size());
+            }else{
+                book.addAsk(price, level.size());
+            }
         }
 
         runTrigger.triggerRun();
     }
+
+    private InstrumentBook bookFor(final long instrumentId){
+        InstrumentBook book = books.get(instrumentId);
+
+        if(book == null){
+            book = new InstrumentBook(instrumentId, depth);
+            books.put(instrumentId, book);
+        }
+
+        current = book;
+        return book;
+    }
+
+    private static void setBid(final InstrumentBook book, final int level, final long price, final long quantity){
+        if(book.setBid(level, price, quantity) && logger.isDebugEnabled()){
+            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
+        }
+    }
+
+    private static void setAsk(final InstrumentBook book, final int level, final long price, final long quantity){
+        if(book.setAsk(level, price, quantity) && logger.isDebugEnabled()){
+            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
+        }
+    }
 }
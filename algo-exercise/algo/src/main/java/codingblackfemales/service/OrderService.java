@@ -1,22 +1,61 @@
 package codingblackfemales.service;
 
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.LongToObjOpenAddressingMap;
 import codingblackfemales.container.RunTrigger;
 import codingblackfemales.sequencer.event.OrderEventListener;
 import codingblackfemales.sotw.ChildOrder;
 import codingblackfemales.sotw.OrderState;
 import messages.order.*;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class OrderService extends OrderEventListener {
 
     private final RunTrigger runTrigger;
 
-    private List<ChildOrder> children = new LinkedList<>();
+    private boolean retainFills = false;
+
+    private final PositionService positionService = new PositionService();
+
+    //children in the order they were created, plus an index by order id so each order event is a single lookup
+    private final List<ChildOrder> children = new ArrayList<>();
+    private final LongToObjMap<Tracked> childrenById = new LongToObjOpenAddressingMap<>();
+
+    //kept up to date on every state change, so the algo can read them each evaluation without filtering the children,
+    //each child is linked into them through its own nodes, so a state change never searches or shifts a list
+    private final ChildOrderList active = new ChildOrderList();
+    private final List<ChildOrder> activeView = Collections.unmodifiableList(active);
+    private final List<ChildOrderList> byState = new ArrayList<>();
+    private final List<List<ChildOrder>> byStateViews = new ArrayList<>();
+
+    /**
+     * A child and its places in the state and active lists.
+     */
+    private static final class Tracked {
+        private final ChildOrder child;
+        private final ChildOrderList.Node inState;
+        private final ChildOrderList.Node inActive;
+
+        private Tracked(final ChildOrder child) {
+            this.child = child;
+            this.inState = new ChildOrderList.Node(child);
+            this.inActive = new ChildOrderList.Node(child);
+        }
+    }
 
     public OrderService(RunTrigger runTrigger) {
         this.runTrigger = runTrigger;
+
+        //indexed by the OrderState constants
+        for(int state = 0; state <= OrderState.FILLED; state++){
+            final ChildOrderList orders = new ChildOrderList();
+            byState.add(orders);
+            byStateViews.add(Collections.unmodifiableList(orders));
+        }
     }
 
 
@@ -25,25 +64,64 @@ public class OrderService extends OrderEventListener {
     }
 
     private ChildOrder createChildOrder(final CreateOrderDecoder create){
-        return new ChildOrder(create.side(), create.orderId(), create.quantity(), create.price(), OrderState.PENDING);
+        return new ChildOrder(create.side(), create.orderId(), create.instrumentId(), create.quantity(), create.price(), OrderState.PENDING, retainFills);
     }
 
-    private void updateState(ChildOrder child, int state){
+    /**
+     * Keep every fill on the child orders created from now on, not just the running totals, off by default.
+     */
+    public void setRetainFills(boolean retainFills){
+        this.retainFills = retainFills;
+    }
+
+    private void updateState(Tracked tracked, int state){
+        final ChildOrder child = tracked.child;
+        final int previous = child.getState();
+
+        if(previous == state){
+            return;
+        }
+
+        if(state == OrderState.CANCELLED){
+            positionService.onCancel(child);
+        }
+
         child.setState(state);
+
+        byState.get(previous).remove(tracked.inState);
+        byState.get(state).addLast(tracked.inState);
+
+        if(state == OrderState.CANCELLED){
+            active.remove(tracked.inActive);
+        }else if(previous == OrderState.CANCELLED){
+            active.addLast(tracked.inActive);
+            positionService.onReopen(child);
+        }
     }
 
     private void addChildFill(ChildOrder child, long filledQuantity, long filledPrice){
+        positionService.onFill(child, filledQuantity, filledPrice);
         child.addFill(filledQuantity, filledPrice);
     }
 
     @Override
     public void onCreateOrder(final CreateOrderDecoder create) {
-        children.add(createChildOrder(create));
+        final ChildOrder child = createChildOrder(create);
+        final Tracked tracked = new Tracked(child);
+        children.add(child);
+        childrenById.put(child.getOrderId(), tracked);
+        byState.get(child.getState()).addLast(tracked.inState);
+        active.addLast(tracked.inActive);
+        positionService.onCreate(child);
         triggerRun();
     }
 
-    private ChildOrder find(long orderId){
-        return children.stream().filter( order -> order.getOrderId() == orderId).findFirst().get();
+    private Tracked find(long orderId){
+        final Tracked tracked = childrenById.get(orderId);
+        if(tracked == null){
+            throw new NoSuchElementException("No child order with id: " + orderId);
+        }
+        return tracked;
     }
 
     @Override
@@ -74,15 +152,42 @@ public class OrderService extends OrderEventListener {
         return this.children;
     }
 
+    /**
+     * Every child which hasn't been cancelled, in the order they were created. This is a read only view which changes
+     * as the orders do, copy it if you need to keep it.
+     */
+    public List<ChildOrder> activeChildren(){
+        return activeView;
+    }
+
+    /**
+     * A read only view of the children currently in one of the {@link OrderState}s.
+     */
+    public List<ChildOrder> childrenInState(int state){
+        return byStateViews.get(state);
+    }
+
+    public PositionService positions(){
+        return positionService;
+    }
+
+    /**
+     * The child order with this id, or null if we never created it.
+     */
+    public ChildOrder child(long orderId){
+        final Tracked tracked = childrenById.get(orderId);
+        return tracked != null ? tracked.child : null;
+    }
+
     @Override
     public void onPartialFill(PartialFillOrderDecoder partialFill) {
-        addChildFill(find(partialFill.orderId()), partialFill.quantity(), partialFill.price());
+        addChildFill(find(partialFill.orderId()).child, partialFill.quantity(), partialFill.price());
         triggerRun();
     }
 
     @Override
     public void onFill(FillOrderDecoder fill) {
-        addChildFill(find(fill.orderId()), fill.quantity(), fill.price());
+        addChildFill(find(fill.orderId()).child, fill.quantity(), fill.price());
         triggerRun();
     }
 }
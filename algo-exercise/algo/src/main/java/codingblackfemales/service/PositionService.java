@@ -0,0 +1,79 @@
+package codingblackfemales.service;
+
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.LongToObjOpenAddressingMap;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import codingblackfemales.sotw.Position;
+
+/**
+ * Keeps a {@link Position} per instrument up to date from the child order events the {@link OrderService} sees, so
+ * the algo can read its position, P&L and open exposure without going back over its orders.
+ *
+ * Each method is called with the child as it was before the event is applied to it.
+ */
+public class PositionService {
+
+    private final LongToObjMap<Position> positions = new LongToObjOpenAddressingMap<>();
+
+    /**
+     * The position in the instrument, or null if we have never had an order in it.
+     */
+    public Position getPosition(long instrumentId){
+        return positions.get(instrumentId);
+    }
+
+    public int getInstrumentCount(){
+        return positions.size();
+    }
+
+    void onCreate(ChildOrder child){
+        positionFor(child.getInstrumentId()).addOpen(child.getSide(), child.getQuantity(), child.getPrice());
+    }
+
+    void onFill(ChildOrder child, long filledQuantity, long filledPrice){
+        final Position position = positionFor(child.getInstrumentId());
+
+        //a cancelled order has already had its open quantity taken off, so only the position moves
+        final long open = openQuantity(child);
+        if(open > 0){
+            position.removeOpen(child.getSide(), Math.min(open, filledQuantity), child.getPrice());
+        }
+
+        position.onFill(child.getSide(), filledQuantity, filledPrice);
+    }
+
+    void onCancel(ChildOrder child){
+        final long open = openQuantity(child);
+        if(open > 0){
+            positionFor(child.getInstrumentId()).removeOpen(child.getSide(), open, child.getPrice());
+        }
+    }
+
+    //a state event moved a cancelled child to another state, it is called with the child after the change so what is
+    //left unfilled is open again
+    void onReopen(ChildOrder child){
+        final long open = openQuantity(child);
+        if(open > 0){
+            positionFor(child.getInstrumentId()).addOpen(child.getSide(), open, child.getPrice());
+        }
+    }
+
+    private static long openQuantity(ChildOrder child){
+        if(child.getState() == OrderState.CANCELLED){
+            return 0;
+        }
+        return Math.max(0, child.getQuantity() - child.getFilledQuantity());
+    }
+
+    private Position positionFor(long instrumentId){
+        Position position = positions.get(instrumentId);
+
+        if(position == null){
+            position = new Position(instrumentId);
+            positions.put(instrumentId, position);
+        }
+
+        return position;
+    }
+}
@@ -2,26 +2,43 @@ package codingblackfemales.sotw;
 
 import messages.order.Side;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ChildOrder {
     private Side side;
     private long orderId;
+    private long instrumentId;
     private long quantity;
     private long price;
 
     private int state;
 
-    private List<ChildFill> fills = new LinkedList<>();
+    //kept up to date as fills arrive, so reading them never walks the fills
+    private long filledQuantity = 0;
+    private long filledNotional = 0;
+    private int fillCount = 0;
+
+    //only kept if asked for, otherwise each fill would be an allocation
+    private final List<ChildFill> fills;
 
     public ChildOrder(Side side, long orderId, long quantity, long price, int state) {
+        this(side, orderId, quantity, price, state, false);
+    }
+
+    public ChildOrder(Side side, long orderId, long quantity, long price, int state, boolean retainFills) {
+        this(side, orderId, 0, quantity, price, state, retainFills);
+    }
+
+    public ChildOrder(Side side, long orderId, long instrumentId, long quantity, long price, int state, boolean retainFills) {
         this.side = side;
         this.orderId = orderId;
+        this.instrumentId = instrumentId;
         this.quantity = quantity;
         this.price = price;
         this.state = state;
+        this.fills = retainFills ? new ArrayList<>() : null;
     }
 
     public Side getSide() {
@@ -32,6 +49,10 @@ public class ChildOrder {
         return orderId;
     }
 
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
     public long getQuantity() {
         return quantity;
     }
@@ -41,7 +62,32 @@ public class ChildOrder {
     }
 
     public long getFilledQuantity() {
-        return fills.stream().map( cf -> cf.getQuantity()).collect(Collectors.summingLong(Long::longValue));
+        return filledQuantity;
+    }
+
+    /**
+     * The sum of quantity * price over every fill.
+     */
+    public long getFilledNotional() {
+        return filledNotional;
+    }
+
+    /**
+     * The volume weighted price we have been filled at, or 0 if we haven't been filled.
+     */
+    public double getAverageFillPrice() {
+        return filledQuantity == 0 ? 0 : (double) filledNotional / filledQuantity;
+    }
+
+    public int getFillCount() {
+        return fillCount;
+    }
+
+    /**
+     * The individual fills, empty unless the order was created to retain them.
+     */
+    public List<ChildFill> getFills() {
+        return fills != null ? Collections.unmodifiableList(fills) : Collections.emptyList();
     }
 
     public int getState() {
@@ -53,6 +99,12 @@ public class ChildOrder {
     }
 
     public void addFill(long filledQuantity, long filledPrice) {
-        this.fills.add(new ChildFill(filledQuantity, filledPrice));
+        this.filledQuantity += filledQuantity;
+        this.filledNotional += filledQuantity * filledPrice;
+        this.fillCount++;
+
+        if(fills != null){
+            fills.add(new ChildFill(filledQuantity, filledPrice));
+        }
     }
 }
@@ -0,0 +1,102 @@
+package codingblackfemales.sotw;
+
+import messages.order.Side;
+
+/**
+ * Our net position in one instrument, built up a fill at a time so every read is just a field. Average cost is the
+ * volume weighted price of the position we still hold, realised P&L is booked as the position is reduced, and open
+ * quantities are what our live child orders could still add to it.
+ */
+public class Position {
+
+    private final long instrumentId;
+
+    private long netQuantity = 0;
+    private double averageCost = 0;
+    private double realisedPnl = 0;
+
+    private long openBuyQuantity = 0;
+    private long openSellQuantity = 0;
+    private long openNotional = 0;
+
+    public Position(long instrumentId) {
+        this.instrumentId = instrumentId;
+    }
+
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
+    /**
+     * Positive when long, negative when short.
+     */
+    public long getNetQuantity() {
+        return netQuantity;
+    }
+
+    public double getAverageCost() {
+        return averageCost;
+    }
+
+    public double getRealisedPnl() {
+        return realisedPnl;
+    }
+
+    /**
+     * What the position would make or lose if it were closed out at the mark price.
+     */
+    public double getUnrealisedPnl(long markPrice) {
+        return netQuantity * (markPrice - averageCost);
+    }
+
+    public long getOpenBuyQuantity() {
+        return openBuyQuantity;
+    }
+
+    public long getOpenSellQuantity() {
+        return openSellQuantity;
+    }
+
+    /**
+     * The quantity * price of everything our live child orders could still fill.
+     */
+    public long getOpenNotional() {
+        return openNotional;
+    }
+
+    public void onFill(Side side, long quantity, long price) {
+        final long signedQuantity = side == Side.BUY ? quantity : -quantity;
+
+        if(netQuantity == 0 || Long.signum(netQuantity) == Long.signum(signedQuantity)){
+            //adding to the position, so average the price in
+            final long newQuantity = Math.abs(netQuantity) + quantity;
+            averageCost = (averageCost * Math.abs(netQuantity) + (double) price * quantity) / newQuantity;
+            netQuantity += signedQuantity;
+            return;
+        }
+
+        final long closedQuantity = Math.min(quantity, Math.abs(netQuantity));
+        realisedPnl += closedQuantity * (price - averageCost) * Long.signum(netQuantity);
+        netQuantity += signedQuantity;
+
+        if(netQuantity == 0){
+            averageCost = 0;
+        }else if(Long.signum(netQuantity) == Long.signum(signedQuantity)){
+            //we went through flat, what is left was all done at this price
+            averageCost = price;
+        }
+    }
+
+    public void addOpen(Side side, long quantity, long price) {
+        if(side == Side.BUY){
+            openBuyQuantity += quantity;
+        }else{
+            openSellQuantity += quantity;
+        }
+        openNotional += quantity * price;
+    }
+
+    public void removeOpen(Side side, long quantity, long price) {
+        addOpen(side, -quantity, price);
+    }
+}
@@ -12,12 +12,57 @@ public interface SimpleAlgoState {
     public int getBidLevels();
     public int getAskLevels();
 
+    /**
+     * The level returned is reused for every call on that side of the book, copy the price and quantity out if you
+     * need to keep them past the next call.
+     */
     public BidLevel getBidAt(int index);
     public AskLevel getAskAt(int index);
 
+    /**
+     * The same as above, but for a given instrument's book rather than the one updated last, an instrument we have had
+     * no market data for has no levels.
+     */
+    public int getBidLevels(long instrumentId);
+    public int getAskLevels(long instrumentId);
+
+    public BidLevel getBidAt(long instrumentId, int index);
+    public AskLevel getAskAt(long instrumentId, int index);
+
     public List<ChildOrder> getChildOrders();
 
+    /**
+     * The child orders lists are read only views kept up to date as orders change state, so reading them allocates
+     * nothing, but they will change under you between evaluations.
+     */
     public List<ChildOrder> getActiveChildOrders();
 
+    /**
+     * Children whose state is FILLED, a fill on its own doesn't change a child's state.
+     */
+    public List<ChildOrder> getFilledChildOrders();
+
+    public List<ChildOrder> getCancelledChildOrders();
+
     public long getInstrumentId();
+
+    /**
+     * Our net position in the instrument from our fills, positive when long and negative when short.
+     */
+    public long getPosition(long instrumentId);
+
+    public double getAverageCost(long instrumentId);
+
+    public double getRealisedPnl(long instrumentId);
+
+    /**
+     * The position marked against the touch we would close it out on, the best bid when long and the best ask when
+     * short, 0 if that side of the book is empty.
+     */
+    public double getUnrealisedPnl(long instrumentId);
+
+    /**
+     * The quantity * price our live child orders in the instrument could still fill.
+     */
+    public long getOpenExposure(long instrumentId);
 }
@@ -4,9 +4,9 @@ import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
+import codingblackfemales.sotw.marketdata.InstrumentBook;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class SimpleAlgoStateImpl implements SimpleAlgoState {
 
@@ -48,6 +48,30 @@ public class SimpleAlgoStateImpl implements SimpleAlgoState {
         return marketDataService.getAskLevel(index);
     }
 
+    @Override
+    public int getBidLevels(long instrumentId) {
+        final InstrumentBook book = marketDataService.getBook(instrumentId);
+        return book != null ? book.getBidLength() : 0;
+    }
+
+    @Override
+    public int getAskLevels(long instrumentId) {
+        final InstrumentBook book = marketDataService.getBook(instrumentId);
+        return book != null ? book.getAskLength() : 0;
+    }
+
+    @Override
+    public BidLevel getBidAt(long instrumentId, int index) {
+        final InstrumentBook book = marketDataService.getBook(instrumentId);
+        return book != null ? book.getBidLevel(index) : null;
+    }
+
+    @Override
+    public AskLevel getAskAt(long instrumentId, int index) {
+        final InstrumentBook book = marketDataService.getBook(instrumentId);
+        return book != null ? book.getAskLevel(index) : null;
+    }
+
     @Override
     public List<ChildOrder> getChildOrders() {
         return orderService.children();
@@ -55,6 +79,56 @@ public class SimpleAlgoStateImpl implements SimpleAlgoState {
 
     @Override
     public List<ChildOrder> getActiveChildOrders() {
-        return orderService.children().stream().filter(order -> order.getState() != OrderState.CANCELLED).collect(Collectors.toList());
+        return orderService.activeChildren();
+    }
+
+    @Override
+    public List<ChildOrder> getFilledChildOrders() {
+        return orderService.childrenInState(OrderState.FILLED);
+    }
+
+    @Override
+    public List<ChildOrder> getCancelledChildOrders() {
+        return orderService.childrenInState(OrderState.CANCELLED);
+    }
+
+    @Override
+    public long getPosition(long instrumentId) {
+        final Position position = orderService.positions().getPosition(instrumentId);
+        return position != null ? position.getNetQuantity() : 0;
+    }
+
+    @Override
+    public double getAverageCost(long instrumentId) {
+        final Position position = orderService.positions().getPosition(instrumentId);
+        return position != null ? position.getAverageCost() : 0;
+    }
+
+    @Override
+    public double getRealisedPnl(long instrumentId) {
+        final Position position = orderService.positions().getPosition(instrumentId);
+        return position != null ? position.getRealisedPnl() : 0;
+    }
+
+    @Override
+    public double getUnrealisedPnl(long instrumentId) {
+        final Position position = orderService.positions().getPosition(instrumentId);
+        final InstrumentBook book = marketDataService.getBook(instrumentId);
+
+        if(position == null || book == null || position.getNetQuantity() == 0){
+            return 0;
+        }
+
+        if(position.getNetQuantity() > 0){
+            return book.getBidLength() > 0 ? position.getUnrealisedPnl(book.getBidPrice(0)) : 0;
+        }else{
+            return book.getAskLength() > 0 ? position.getUnrealisedPnl(book.getAskPrice(0)) : 0;
+        }
+    }
+
+    @Override
+    public long getOpenExposure(long instrumentId) {
+        final Position position = orderService.positions().getPosition(instrumentId);
+        return position != null ? position.getOpenNotional() : 0;
     }
 }
@@ -0,0 +1,194 @@
+package codingblackfemales.sotw.marketdata;
+
+import java.util.Objects;
+
+/**
+ * The book for one instrument, held in preallocated price and quantity arrays which are overwritten on each update.
+ *
+ * {@link #getBidLevel(int)} and {@link #getAskLevel(int)} return a single reusable level per side, which is
+ * re-pointed on every call, copy the price and quantity out if you need to keep them.
+ *
+ * Incremental updates are applied by price, bids are kept best (highest) first and asks best (lowest) first. A level
+ * pushed off the bottom of the book by an insert is dropped, the next full update will bring it back.
+ */
+public class InstrumentBook {
+
+    private final long instrumentId;
+    private final int depth;
+
+    private final long[] bidPrices;
+    private final long[] bidQuantities;
+    private final long[] askPrices;
+    private final long[] askQuantities;
+
+    private int bidLength = 0;
+    private int askLength = 0;
+
+    private final BidLevel bidLevel = new BidLevel();
+    private final AskLevel askLevel = new AskLevel();
+
+    public InstrumentBook(final long instrumentId, final int depth) {
+        this.instrumentId = instrumentId;
+        this.depth = depth;
+        this.bidPrices = new long[depth];
+        this.bidQuantities = new long[depth];
+        this.askPrices = new long[depth];
+        this.askQuantities = new long[depth];
+    }
+
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getBidLength() {
+        return bidLength;
+    }
+
+    public int getAskLength() {
+        return askLength;
+    }
+
+    public BidLevel getBidLevel(int i){
+        if(i >= bidLength){
+            return null;
+        }
+        bidLevel.setPrice(bidPrices[i]);
+        bidLevel.setQuantity(bidQuantities[i]);
+        return bidLevel;
+    }
+
+    public AskLevel getAskLevel(int i){
+        if(i >= askLength){
+            return null;
+        }
+        askLevel.setPrice(askPrices[i]);
+        askLevel.setQuantity(askQuantities[i]);
+        return askLevel;
+    }
+
+    /**
+     * The raw accessors throw an IndexOutOfBoundsException for a level past the live depth of the side, the arrays
+     * there still hold whatever an earlier, deeper book left in them.
+     */
+    public long getBidPrice(int i){
+        return bidPrices[Objects.checkIndex(i, bidLength)];
+    }
+
+    public long getBidQuantity(int i){
+        return bidQuantities[Objects.checkIndex(i, bidLength)];
+    }
+
+    public long getAskPrice(int i){
+        return askPrices[Objects.checkIndex(i, askLength)];
+    }
+
+    public long getAskQuantity(int i){
+        return askQuantities[Objects.checkIndex(i, askLength)];
+    }
+
+    /**
+     * Set a bid level, returns false (and ignores it) if the level is deeper than the book.
+     */
+    public boolean setBid(final int level, final long price, final long quantity){
+        if(level >= depth){
+            return false;
+        }
+        bidPrices[level] = price;
+        bidQuantities[level] = quantity;
+        return true;
+    }
+
+    public boolean setAsk(final int level, final long price, final long quantity){
+        if(level >= depth){
+            return false;
+        }
+        askPrices[level] = price;
+        askQuantities[level] = quantity;
+        return true;
+    }
+
+    public void setBidLength(final int bidLength) {
+        this.bidLength = Math.min(bidLength, depth);
+    }
+
+    public void setAskLength(final int askLength) {
+        this.askLength = Math.min(askLength, depth);
+    }
+
+    /**
+     * Insert a bid level at its price, or replace the quantity if we already have the price.
+     */
+    public void addBid(final long price, final long quantity){
+        bidLength = insert(bidPrices, bidQuantities, bidLength, price, quantity, true);
+    }
+
+    public void addAsk(final long price, final long quantity){
+        askLength = insert(askPrices, askQuantities, askLength, price, quantity, false);
+    }
+
+    public void deleteBid(final long price){
+        bidLength = delete(bidPrices, bidQuantities, bidLength, price, true);
+    }
+
+    public void deleteAsk(final long price){
+        askLength = delete(askPrices, askQuantities, askLength, price, false);
+    }
+
+    private int insert(final long[] prices, final long[] quantities, final int length, final long price,
+                       final long quantity, final boolean descending){
+        final int index = indexOf(prices, length, price, descending);
+
+        if(index < length && prices[index] == price){
+            quantities[index] = quantity;
+            return length;
+        }
+
+        if(index >= depth){
+            return length;
+        }
+
+        //shift the worse levels down one, losing the last if we are already full
+        final int toMove = Math.min(length, depth - 1) - index;
+        if(toMove > 0){
+            System.arraycopy(prices, index, prices, index + 1, toMove);
+            System.arraycopy(quantities, index, quantities, index + 1, toMove);
+        }
+
+        prices[index] = price;
+        quantities[index] = quantity;
+
+        return Math.min(length + 1, depth);
+    }
+
+    private static int delete(final long[] prices, final long[] quantities, final int length, final long price,
+                              final boolean descending){
+        final int index = indexOf(prices, length, price, descending);
+
+        if(index >= length || prices[index] != price){
+            return length;
+        }
+
+        final int toMove = length - index - 1;
+        if(toMove > 0){
+            System.arraycopy(prices, index + 1, prices, index, toMove);
+            System.arraycopy(quantities, index + 1, quantities, index, toMove);
+        }
+
+        return length - 1;
+    }
+
+    /**
+     * The index of the price, or of where it would go. Books are only a few levels deep, so a scan beats a search.
+     */
+    private static int indexOf(final long[] prices, final int length, final long price, final boolean descending){
+        int index = 0;
+        while(index < length && (descending ? prices[index] > price : prices[index] < price)){
+            index++;
+        }
+        return index;
+    }
+}
@@ -10,6 +10,7 @@ import codingblackfemales.sequencer.marketdata.SequencerTestCase;
 import codingblackfemales.sequencer.net.TestNetwork;
 import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
+import codingblackfemales.sotw.ChildOrder;
 import messages.marketdata.*;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Test;
@@ -80,5 +81,10 @@ public class PassiveAlgoTest extends SequencerTestCase {
 
         //simple assert to check we had 3 orders created
         assertEquals(container.getState().getChildOrders().size(), 3);
+
+        //and each one is for the instrument the algo is trading
+        for(ChildOrder child : container.getState().getChildOrders()){
+            assertEquals(123L, child.getInstrumentId());
+        }
     }
 }
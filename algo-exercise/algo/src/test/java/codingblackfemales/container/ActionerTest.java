@@ -0,0 +1,116 @@
+package codingblackfemales.container;
+
+import codingblackfemales.action.ActionPool;
+import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import messages.order.CancelOrderDecoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ActionerTest {
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final CreateOrderDecoder createDecoder = new CreateOrderDecoder();
+    private final CancelOrderDecoder cancelDecoder = new CancelOrderDecoder();
+
+    @Test
+    public void encodesCreateAndCancelCommands() {
+        final List<String> sent = new ArrayList<>();
+        final Actioner actioner = new Actioner(buffer -> sent.add(describe(buffer)));
+        final ActionPool pool = new ActionPool();
+
+        actioner.processAction(pool.createChildOrder(Side.SELL, 200, 101, 7));
+        actioner.processAction(pool.cancelChildOrder(new ChildOrder(Side.BUY, 42, 100, 99, OrderState.ACKED)));
+
+        assertEquals(List.of("create:7:SELL:200@101", "cancel:42"), sent);
+    }
+
+    @Test
+    public void pooledActionsAreReused() {
+        final Actioner actioner = new Actioner(buffer -> {});
+        final ActionPool pool = new ActionPool();
+
+        final CreateChildOrder first = pool.createChildOrder(Side.BUY, 100, 99, 7);
+        actioner.processAction(first);
+
+        for(int i=0; i<100; i++){
+            final CreateChildOrder next = pool.createChildOrder(Side.BUY, 100, 99, 7);
+            assertSame(first, next);
+            actioner.processAction(next);
+            actioner.processAction(pool.cancelChildOrder(new ChildOrder(Side.BUY, i, 100, 99, OrderState.ACKED)));
+        }
+
+        assertEquals(2, pool.getAllocated());
+    }
+
+    @Test
+    public void actionsAppliedDirectlyReuseTheirCommandBuffer() {
+        final List<DirectBuffer> buffers = new ArrayList<>();
+        final List<String> sent = new ArrayList<>();
+        final Sequencer sequencer = buffer -> {
+            buffers.add(buffer);
+            sent.add(describe(buffer));
+        };
+        final ActionPool pool = new ActionPool();
+
+        for(int i=0; i<3; i++){
+            final CreateChildOrder create = pool.createChildOrder(Side.BUY, 100, 99 + i, 7);
+            create.apply(sequencer);
+            create.release();
+        }
+
+        assertEquals(List.of("create:7:BUY:100@99", "create:7:BUY:100@100", "create:7:BUY:100@101"), sent);
+        assertSame(buffers.get(0), buffers.get(1));
+        assertSame(buffers.get(0), buffers.get(2));
+    }
+
+    @Test
+    public void nestedActionsDoNotOverwriteTheCommandBeingSent() {
+        final List<String> sent = new ArrayList<>();
+        final ActionPool pool = new ActionPool();
+        final Actioner[] actioner = new Actioner[1];
+
+        final Sequencer sequencer = new Sequencer() {
+            private boolean nested = false;
+
+            @Override
+            public void onCommand(DirectBuffer buffer) {
+                //like the container reacting to our own order before the command has been dispatched to everyone
+                if(!nested){
+                    nested = true;
+                    actioner[0].processAction(pool.createChildOrder(Side.BUY, 10, 98, 7));
+                }
+                sent.add(describe(buffer));
+            }
+        };
+
+        actioner[0] = new Actioner(sequencer);
+        actioner[0].processAction(pool.createChildOrder(Side.SELL, 20, 102, 7));
+
+        assertEquals(List.of("create:7:BUY:10@98", "create:7:SELL:20@102"), sent);
+    }
+
+    private String describe(final DirectBuffer buffer){
+        headerDecoder.wrap(buffer, 0);
+
+        if(headerDecoder.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+            createDecoder.wrapAndApplyHeader(buffer, 0, headerDecoder);
+            return "create:" + createDecoder.instrumentId() + ":" + createDecoder.side() + ":" + createDecoder.quantity()
+                    + "@" + createDecoder.price();
+        }
+
+        cancelDecoder.wrapAndApplyHeader(buffer, 0, headerDecoder);
+        return "cancel:" + cancelDecoder.orderId();
+    }
+}
@@ -0,0 +1,83 @@
+package codingblackfemales.container;
+
+import codingblackfemales.action.ActionPool;
+import codingblackfemales.action.BatchAction;
+import codingblackfemales.action.NoAction;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.Venue;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AlgoContainerBatchTest {
+
+    private UnsafeBuffer tick(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.askBookCount(1).next().price(100L).size(100L);
+        encoder.bidBookCount(1).next().price(98L).size(100L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+        return buffer;
+    }
+
+    @Test
+    public void batchIsSentBeforeTheAlgoIsEvaluatedAgain() {
+        final TestNetwork network = new TestNetwork();
+        final Sequencer sequencer = new DefaultSequencer(network);
+        final RunTrigger runTrigger = new RunTrigger();
+        final AlgoContainer container = new AlgoContainer(new MarketDataService(runTrigger),
+                new OrderService(runTrigger), runTrigger, new Actioner(sequencer));
+
+        final ActionPool pool = new ActionPool();
+        final BatchAction batch = new BatchAction();
+        final List<Integer> childrenSeen = new ArrayList<>();
+
+        container.setLogic(state -> {
+            childrenSeen.add(state.getChildOrders().size());
+
+            if(!state.getChildOrders().isEmpty()){
+                return NoAction.NoAction;
+            }
+
+            for(int i=0; i<3; i++){
+                batch.add(pool.createChildOrder(Side.BUY, 10, 97 - i, 123L));
+            }
+            return batch;
+        });
+
+        network.addConsumer(container.getMarketDataService());
+        network.addConsumer(container.getOrderService());
+        network.addConsumer(container);
+
+        sequencer.onCommand(tick());
+
+        //one evaluation for the tick, then one more once all three creates were out
+        assertEquals(List.of(0, 3), childrenSeen);
+        assertEquals(3, container.getOrderService().children().size());
+        assertEquals(97, container.getOrderService().children().get(0).getPrice());
+        assertEquals(95, container.getOrderService().children().get(2).getPrice());
+
+        //the batch and its actions went back for reuse
+        assertEquals(0, batch.size());
+        batch.add(pool.createChildOrder(Side.BUY, 10, 97, 123L));
+        assertEquals(3, pool.getAllocated());
+    }
+}
@@ -0,0 +1,136 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sequencer.net.Consumer;
+import messages.marketdata.*;
+import messages.order.CreateOrderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MarketDataConflatorTest {
+
+    private static class TemplateRecorder implements Consumer {
+
+        private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        private final List<String> received = new ArrayList<>();
+
+        @Override
+        public void onMessage(DirectBuffer buffer) {
+            header.wrap(buffer, 0);
+            received.add(header.schemaId() + ":" + header.templateId());
+        }
+    }
+
+    private static UnsafeBuffer createTick(final long instrumentId, final long bestBid){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(instrumentId);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(bestBid).size(100L)
+                .next().price(bestBid - 1).size(200L);
+
+        encoder.askBookCount(1)
+                .next().price(bestBid + 1).size(100L);
+
+        return directBuffer;
+    }
+
+    private static UnsafeBuffer createDelta(final long instrumentId, final UpdateAction action, final long price, final long size){
+        return createDelta(instrumentId, Venue.XLON, Source.STREAM, action, price, size);
+    }
+
+    private static UnsafeBuffer createDelta(final long instrumentId, final Venue venue, final Source source,
+                                            final UpdateAction action, final long price, final long size){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookDeltaEncoder encoder = new BookDeltaEncoder();
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.instrumentId(instrumentId).venue(venue).source(source);
+        encoder.levelsCount(1).next().side(BookSide.BID).action(action).price(price).size(size);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testOnlyNewestStatePerInstrumentIsPassedOnWhenBehind(){
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        final TemplateRecorder recorder = new TemplateRecorder();
+        final MarketDataConflator conflator = new MarketDataConflator(service, recorder);
+
+        conflator.onMessage(createTick(1L, 100L));
+        conflator.onMessage(createTick(2L, 500L));
+        conflator.onMessage(createTick(1L, 110L));
+        conflator.onMessage(createDelta(2L, UpdateAction.MODIFY, 500L, 7L));
+        conflator.onMessage(createDelta(2L, UpdateAction.ADD, 499L, 9L));
+        conflator.onMessage(createDelta(2L, UpdateAction.MODIFY, 500L, 8L));
+
+        assertEquals(0, recorder.received.size());
+        assertEquals(2, conflator.getPendingInstruments());
+
+        conflator.onCaughtUp();
+
+        //the newest book for 1, then 2's book followed by its deltas merged into one
+        assertEquals(List.of("1:1", "1:1", "1:22"), recorder.received);
+        assertEquals(3, conflator.getConflatedCount());
+        assertEquals(0, conflator.getPendingInstruments());
+
+        assertEquals(110L, service.getBook(1L).getBidPrice(0));
+        assertEquals(8L, service.getBook(2L).getBidQuantity(0));
+        assertEquals(9L, service.getBook(2L).getBidQuantity(1));
+    }
+
+    @Test
+    public void testDeltasAreOnlyMergedWithTheSameVenueAndSource(){
+        final List<String> received = new ArrayList<>();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final BookDeltaDecoder decoder = new BookDeltaDecoder();
+        final MarketDataConflator conflator = new MarketDataConflator(buffer -> {
+            header.wrap(buffer, 0);
+            decoder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+            final BookDeltaDecoder.LevelsDecoder levels = decoder.levels();
+            received.add(decoder.venue() + ":" + decoder.source() + ":" + levels.count() + ":" + levels.next().size());
+        });
+
+        conflator.onMessage(createDelta(1L, Venue.XLON, Source.STREAM, UpdateAction.MODIFY, 500L, 7L));
+        conflator.onMessage(createDelta(1L, Venue.XLON, Source.STREAM, UpdateAction.MODIFY, 500L, 8L));
+        conflator.onMessage(createDelta(1L, Venue.XLON, Source.ORDERBOOK, UpdateAction.MODIFY, 500L, 3L));
+        conflator.onMessage(createDelta(1L, Venue.XPAR, Source.ORDERBOOK, UpdateAction.MODIFY, 500L, 4L));
+        conflator.onMessage(createDelta(1L, Venue.XPAR, Source.ORDERBOOK, UpdateAction.MODIFY, 500L, 5L));
+
+        conflator.onCaughtUp();
+
+        assertEquals(List.of("XLON:STREAM:1:8", "XLON:ORDERBOOK:1:3", "XPAR:ORDERBOOK:1:5"), received);
+        assertEquals(2, conflator.getConflatedCount());
+    }
+
+    @Test
+    public void testOrderEventReleasesHeldMarketDataFirst(){
+        final TemplateRecorder recorder = new TemplateRecorder();
+        final MarketDataConflator conflator = new MarketDataConflator(recorder);
+
+        final UnsafeBuffer order = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new CreateOrderEncoder().wrapAndApplyHeader(order, 0, new messages.order.MessageHeaderEncoder())
+                .orderId(1L).price(100L).quantity(10L);
+
+        conflator.onMessage(createTick(1L, 100L));
+        conflator.onMessage(order);
+
+        assertEquals(List.of("1:1", "2:4"), recorder.received);
+        assertEquals(0, conflator.getConflatedCount());
+    }
+}
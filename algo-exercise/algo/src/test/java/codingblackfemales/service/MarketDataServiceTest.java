@@ -0,0 +1,182 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sequencer.net.MessageBatch;
+import messages.marketdata.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MarketDataServiceTest {
+
+    private static UnsafeBuffer createTick(final int bidLevels, final int askLevels){
+        return createTick(123L, 100L, bidLevels, askLevels);
+    }
+
+    private static UnsafeBuffer createTick(final long instrumentId, final long bestBid, final int bidLevels, final int askLevels){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(instrumentId);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        final BookUpdateEncoder.BidBookEncoder bids = encoder.bidBookCount(bidLevels);
+        for(int i=0; i<bidLevels; i++){
+            bids.next().price(bestBid - i).size(100L + i);
+        }
+
+        final BookUpdateEncoder.AskBookEncoder asks = encoder.askBookCount(askLevels);
+        for(int i=0; i<askLevels; i++){
+            asks.next().price(bestBid + 1 + i).size(200L + i);
+        }
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testBookIsTruncatedToConfiguredDepth(){
+        final RunTrigger runTrigger = new RunTrigger();
+        final MarketDataService service = new MarketDataService(runTrigger, 3);
+
+        service.onMessage(createTick(5, 2));
+
+        assertTrue(runTrigger.shouldRun());
+        assertEquals(123L, service.getInstrumentId());
+        assertEquals(3, service.getBidLength());
+        assertEquals(2, service.getAskLength());
+        assertEquals(98L, service.getBidLevel(2).getPrice());
+        assertEquals(102L, service.getAskLevel(1).getPrice());
+        assertNull(service.getAskLevel(2));
+    }
+
+    @Test
+    public void testLevelViewIsReusedAndNewTickShrinksTheBook(){
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+
+        service.onMessage(createTick(4, 4));
+        assertSame(service.getBidLevel(0), service.getBidLevel(1));
+        assertEquals(99L, service.getBidLevel(1).getPrice());
+        assertEquals(101L, service.getBidLevel(1).getQuantity());
+
+        service.onMessage(createTick(1, 0));
+        assertEquals(1, service.getBidLength());
+        assertEquals(0, service.getAskLength());
+        assertNull(service.getBidLevel(1));
+        assertNull(service.getAskLevel(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRawAccessorsDoNotReadPastTheLiveDepth(){
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+
+        service.onMessage(createTick(4, 4));
+        service.onMessage(createTick(1, 4));
+
+        //the second level is still in the arrays from the first tick
+        assertEquals(100L, service.getBidPrice(0));
+        service.getBidPrice(1);
+    }
+
+    @Test
+    public void testUpdateForOneInstrumentDoesNotEvictAnother(){
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+
+        service.onMessage(createTick(1L, 100L, 2, 2));
+        service.onMessage(createTick(2L, 500L, 1, 3));
+
+        assertEquals(2, service.getInstrumentCount());
+        assertEquals(2L, service.getInstrumentId());
+        assertEquals(500L, service.getBidLevel(0).getPrice());
+
+        assertEquals(2, service.getBook(1L).getBidLength());
+        assertEquals(100L, service.getBook(1L).getBidPrice(0));
+        assertEquals(3, service.getBook(2L).getAskLength());
+        assertNull(service.getBook(3L));
+    }
+
+    @Test
+    public void testBatchOnlySkipsUpdatesSupersededForTheSameInstrument(){
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        final MessageBatch batch = new MessageBatch(8, 8192);
+
+        batch.append(createTick(1L, 100L, 1, 1), 256);
+        batch.append(createTick(2L, 500L, 1, 1), 256);
+        batch.append(createTick(1L, 110L, 1, 1), 256);
+
+        service.onBatch(batch);
+
+        assertEquals(110L, service.getBook(1L).getBidPrice(0));
+        assertEquals(500L, service.getBook(2L).getBidPrice(0));
+    }
+
+    @Test
+    public void testBatchSkipsADeltaBeforeAFullBookButNotAfterIt(){
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        final MessageBatch batch = new MessageBatch(8, 8192);
+
+        batch.append(createDelta(1L, 100L, 7L), 256);
+        batch.append(createTick(1L, 100L, 1, 1), 256);
+        batch.append(createDelta(1L, 100L, 8L), 256);
+        service.onBatch(batch);
+
+        assertEquals(8L, service.getBook(1L).getBidQuantity(0));
+
+        //a full book from an earlier batch doesn't supersede anything in this one
+        batch.clear();
+        batch.append(createDelta(1L, 100L, 9L), 256);
+        batch.append(createTick(2L, 500L, 1, 1), 256);
+        service.onBatch(batch);
+
+        assertEquals(9L, service.getBook(1L).getBidQuantity(0));
+        assertEquals(500L, service.getBook(2L).getBidPrice(0));
+    }
+
+    private static UnsafeBuffer createDelta(final long instrumentId, final long bidPrice, final long bidSize){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new BookDeltaEncoder().wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder())
+                .instrumentId(instrumentId).venue(Venue.XLON).source(Source.STREAM)
+                .levelsCount(1).next().side(BookSide.BID).action(UpdateAction.MODIFY).price(bidPrice).size(bidSize);
+        return directBuffer;
+    }
+
+    @Test
+    public void testDeltaUpdatesOnlyTheTouchedLevels(){
+        final MarketDataService service = new MarketDataService(new RunTrigger(), 3);
+
+        service.onMessage(createTick(3, 3));
+
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookDeltaEncoder encoder = new BookDeltaEncoder();
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.instrumentId(123L).venue(Venue.XLON).source(Source.STREAM);
+        encoder.levelsCount(3)
+                .next().side(BookSide.BID).action(UpdateAction.DELETE).price(99L).size(0L)
+                .next().side(BookSide.ASK).action(UpdateAction.ADD).price(100L).size(7L)
+                .next().side(BookSide.BID).action(UpdateAction.MODIFY).price(100L).size(5L);
+
+        service.onMessage(directBuffer);
+
+        //bids were 100, 99, 98
+        assertEquals(2, service.getBidLength());
+        assertEquals(5L, service.getBidQuantity(0));
+        assertEquals(98L, service.getBidPrice(1));
+
+        //asks were 101, 102, 103, the new best pushes 103 off the bottom
+        assertEquals(3, service.getAskLength());
+        assertEquals(100L, service.getAskPrice(0));
+        assertEquals(7L, service.getAskQuantity(0));
+        assertEquals(102L, service.getAskPrice(2));
+    }
+}
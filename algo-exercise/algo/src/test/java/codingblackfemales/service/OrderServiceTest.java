@@ -0,0 +1,147 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import messages.order.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class OrderServiceTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private UnsafeBuffer create(final long orderId){
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .orderId(orderId).side(Side.BUY).price(100L).quantity(10L);
+        return buffer;
+    }
+
+    private UnsafeBuffer ack(final long orderId){
+        new AckedOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+        return buffer;
+    }
+
+    private UnsafeBuffer partialFill(final long orderId, final long quantity){
+        new PartialFillOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .orderId(orderId).quantity(quantity).price(100L);
+        return buffer;
+    }
+
+    private UnsafeBuffer cancel(final long orderId){
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+        return buffer;
+    }
+
+    private UnsafeBuffer fill(final long orderId, final long quantity){
+        new FillOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .orderId(orderId).quantity(quantity).price(100L);
+        return buffer;
+    }
+
+    @Test
+    public void testEventsFindTheirChildByOrderId(){
+        final OrderService service = new OrderService(new RunTrigger());
+
+        for(long orderId = 1; orderId <= 1_000; orderId++){
+            service.onMessage(create(orderId));
+        }
+
+        service.onMessage(ack(500));
+        service.onMessage(partialFill(999, 4L));
+
+        assertEquals(1_000, service.children().size());
+        assertEquals(1L, service.children().get(0).getOrderId());
+        assertEquals(OrderState.ACKED, service.child(500).getState());
+        assertEquals(OrderState.PENDING, service.child(501).getState());
+        assertEquals(4L, service.child(999).getFilledQuantity());
+        assertNull(service.child(1_001));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEventForUnknownOrderFails(){
+        final OrderService service = new OrderService(new RunTrigger());
+        service.onMessage(ack(42));
+    }
+
+    @Test
+    public void testStatePartitionsFollowTransitions(){
+        final OrderService service = new OrderService(new RunTrigger());
+
+        service.onMessage(create(1));
+        service.onMessage(create(2));
+        service.onMessage(create(3));
+
+        final List<ChildOrder> active = service.activeChildren();
+        assertEquals(3, active.size());
+        assertEquals(3, service.childrenInState(OrderState.PENDING).size());
+
+        service.onMessage(ack(1));
+        service.onMessage(ack(2));
+        service.onMessage(cancel(2));
+        service.onMessage(partialFill(3, 6L));
+        service.onMessage(fill(3, 4L));
+
+        //the same view, updated in place
+        assertSame(active, service.activeChildren());
+        assertEquals(List.of(1L, 3L), active.stream().map(ChildOrder::getOrderId).collect(Collectors.toList()));
+        assertEquals(1, service.childrenInState(OrderState.ACKED).size());
+        assertEquals(2L, service.childrenInState(OrderState.CANCELLED).get(0).getOrderId());
+        //fills don't change a child's state, only order state events do
+        assertEquals(3L, service.childrenInState(OrderState.PENDING).get(0).getOrderId());
+        assertEquals(10L, service.child(3).getFilledQuantity());
+        assertEquals(0, service.childrenInState(OrderState.FILLED).size());
+    }
+
+    @Test
+    public void testPartitionsKeepArrivalOrderAcrossManyMoves(){
+        final OrderService service = new OrderService(new RunTrigger());
+
+        for(long orderId = 1; orderId <= 1_000; orderId++){
+            service.onMessage(create(orderId));
+        }
+
+        //ack from the back so the acked list is in the order the acks arrived, not the order children were created
+        for(long orderId = 1_000; orderId >= 1; orderId -= 3){
+            service.onMessage(ack(orderId));
+        }
+
+        final List<ChildOrder> acked = service.childrenInState(OrderState.ACKED);
+        assertEquals(334, acked.size());
+        assertEquals(1_000L, acked.get(0).getOrderId());
+        assertEquals(997L, acked.get(1).getOrderId());
+        assertEquals(1L, acked.get(acked.size() - 1).getOrderId());
+
+        for(long orderId = 2; orderId <= 1_000; orderId += 2){
+            service.onMessage(cancel(orderId));
+        }
+
+        assertEquals(167, acked.size());
+        assertEquals(997L, acked.get(0).getOrderId());
+
+        final List<ChildOrder> active = service.activeChildren();
+        assertEquals(500, active.size());
+        for(int i = 0; i < active.size(); i++){
+            assertEquals(2L * i + 1, active.get(i).getOrderId());
+        }
+        assertEquals(500, service.childrenInState(OrderState.CANCELLED).size());
+        assertEquals(2L, service.childrenInState(OrderState.CANCELLED).get(0).getOrderId());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPartitionsAreReadOnly(){
+        final OrderService service = new OrderService(new RunTrigger());
+        service.onMessage(create(1));
+        service.activeChildren().clear();
+    }
+}
@@ -0,0 +1,95 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.SimpleAlgoState;
+import codingblackfemales.sotw.SimpleAlgoStateImpl;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Source;
+import messages.marketdata.Venue;
+import messages.order.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class PositionServiceTest {
+
+    private static final long INSTRUMENT = 123L;
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private final RunTrigger runTrigger = new RunTrigger();
+    private final MarketDataService marketDataService = new MarketDataService(runTrigger);
+    private final OrderService orderService = new OrderService(runTrigger);
+    private final SimpleAlgoState state = new SimpleAlgoStateImpl(marketDataService, orderService);
+
+    private void create(final long orderId, final Side side, final long quantity, final long price){
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .instrumentId(INSTRUMENT).orderId(orderId).side(side).price(price).quantity(quantity);
+        orderService.onMessage(buffer);
+    }
+
+    private void fill(final long orderId, final long quantity, final long price){
+        new PartialFillOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .orderId(orderId).quantity(quantity).price(price);
+        orderService.onMessage(buffer);
+    }
+
+    private void cancel(final long orderId){
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+        orderService.onMessage(buffer);
+    }
+
+    private void tick(final long bestBid, final long bestAsk){
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        encoder.wrapAndApplyHeader(buffer, 0, new messages.marketdata.MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(INSTRUMENT);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+        encoder.bidBookCount(1).next().price(bestBid).size(100L);
+        encoder.askBookCount(1).next().price(bestAsk).size(100L);
+        marketDataService.onMessage(buffer);
+    }
+
+    @Test
+    public void testPositionAndPnlFollowFills(){
+        create(1, Side.BUY, 100, 100);
+        create(2, Side.BUY, 100, 110);
+
+        assertEquals(200 * 105, state.getOpenExposure(INSTRUMENT));
+
+        fill(1, 100, 100);
+        fill(2, 50, 110);
+
+        assertEquals(150, state.getPosition(INSTRUMENT));
+        assertEquals(103.0 + 1.0 / 3.0, state.getAverageCost(INSTRUMENT), 1e-9);
+        assertEquals(50 * 110, state.getOpenExposure(INSTRUMENT));
+
+        cancel(2);
+        assertEquals(0, state.getOpenExposure(INSTRUMENT));
+
+        //sell more than we hold, so we go short through flat
+        create(3, Side.SELL, 200, 108);
+        fill(3, 200, 108);
+
+        assertEquals(-50, state.getPosition(INSTRUMENT));
+        assertEquals(108.0, state.getAverageCost(INSTRUMENT), 0.0);
+        assertEquals(150 * (108 - (103.0 + 1.0 / 3.0)), state.getRealisedPnl(INSTRUMENT), 1e-9);
+
+        //short, so we are marked against the ask
+        tick(104, 106);
+        assertEquals(-50 * (106 - 108.0), state.getUnrealisedPnl(INSTRUMENT), 0.0);
+    }
+
+    @Test
+    public void testUnknownInstrumentIsFlat(){
+        assertEquals(0, state.getPosition(999L));
+        assertEquals(0.0, state.getUnrealisedPnl(999L), 0.0);
+        assertEquals(0, state.getOpenExposure(999L));
+    }
+}
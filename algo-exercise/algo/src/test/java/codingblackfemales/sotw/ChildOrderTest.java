@@ -0,0 +1,36 @@
+package codingblackfemales.sotw;
+
+import messages.order.Side;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChildOrderTest {
+
+    @Test
+    public void testRunningFillTotals(){
+        final ChildOrder order = new ChildOrder(Side.BUY, 1L, 300L, 100L, OrderState.ACKED);
+
+        assertEquals(0.0, order.getAverageFillPrice(), 0.0);
+
+        order.addFill(100L, 99L);
+        order.addFill(200L, 102L);
+
+        assertEquals(300L, order.getFilledQuantity());
+        assertEquals(30_300L, order.getFilledNotional());
+        assertEquals(101.0, order.getAverageFillPrice(), 0.0);
+        assertEquals(2, order.getFillCount());
+        assertTrue(order.getFills().isEmpty());
+    }
+
+    @Test
+    public void testFillHistoryOnlyKeptWhenAskedFor(){
+        final ChildOrder order = new ChildOrder(Side.SELL, 1L, 300L, 100L, OrderState.ACKED, true);
+
+        order.addFill(100L, 99L);
+
+        assertEquals(1, order.getFills().size());
+        assertEquals(99L, order.getFills().get(0).getPrice());
+    }
+}
@@ -6,14 +6,16 @@ import codingblackfemales.orderbook.visitor.OrderBookVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Comparator;
-
 public class AskBookSide extends OrderBookSide {
 
     private static final Logger logger = LoggerFactory.getLogger(AskBookSide.class);
 
     public AskBookSide() {
-        super(Comparator.naturalOrder());
+        this(new OrderBookPool());
+    }
+
+    public AskBookSide(OrderBookPool pool) {
+        super(false, pool);
     }
 
 }
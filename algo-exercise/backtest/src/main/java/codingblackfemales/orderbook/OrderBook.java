@@ -4,20 +4,32 @@ import codingblackfemales.orderbook.channel.MarketDataChannel;
 import codingblackfemales.orderbook.channel.OrderChannel;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
-import codingblackfemales.orderbook.visitor.CancelOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingMatchOneMarketDataOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingMatchOneOrderVisitor;
 import codingblackfemales.orderbook.visitor.ReadOnlyMarketDataChannelPublishVisitor;
 import codingblackfemales.sequencer.event.MarketDataEventListener;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookDeltaEncoder;
+import messages.marketdata.BookSide;
 import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderEncoder;
 import messages.marketdata.Source;
+import messages.marketdata.UpdateAction;
 import messages.order.Side;
+import org.agrona.ExpandableDirectByteBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+
+/**
+ * After each order or cancel we publish the book. When only our orders have changed it since the last publish we send
+ * a {@link BookDeltaEncoder delta} of just the levels they touched, after market data (which replaces what everyone
+ * downstream has) or when too many levels have changed, we send the whole book.
+ */
 public class OrderBook extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderBook.class);
@@ -32,8 +44,24 @@ public class OrderBook extends MarketDataEventListener {
 
     private ReadOnlyMarketDataChannelPublishVisitor mktDataVisitor = new ReadOnlyMarketDataChannelPublishVisitor();
 
-    private AskBookSide askBookSide = new AskBookSide();
-    private BidBookSide bidBookSide = new BidBookSide();
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookDeltaEncoder deltaEncoder = new BookDeltaEncoder();
+
+    //publishing can re-enter the book and publish again, so each level of nesting encodes into its own buffer
+    private MutableDirectBuffer[] publishBuffers = new MutableDirectBuffer[]{new ExpandableDirectByteBuffer(1024)};
+    private int publishDepth = 0;
+
+    //set when market data has changed the book, so the next publish has to be the whole book
+    private boolean publishWholeBook = true;
+
+    private final OrderBookPool pool = new OrderBookPool();
+
+    private AskBookSide askBookSide = new AskBookSide(pool);
+    private BidBookSide bidBookSide = new BidBookSide(pool);
+
+    public OrderBookPool getPool() {
+        return pool;
+    }
 
     public AskBookSide getAskBookSide() {
         return askBookSide;
@@ -60,11 +88,17 @@ public class OrderBook extends MarketDataEventListener {
         //don't process updates from ourself.
         if(!bookUpdate.source().equals(Source.ORDERBOOK)){
             logger.info("[ORDERBOOK] Processing Mkt Data Update");
-            getBidBookSide().removeMarketDataOrders();
-            addOrMatchBidMarketDataOrders(bookUpdate);
+            publishWholeBook = true;
+            pool.enter();
+            try {
+                getBidBookSide().removeMarketDataOrders();
+                addOrMatchBidMarketDataOrders(bookUpdate);
 
-            getAskBookSide().removeMarketDataOrders();
-            addOrMatchAskMarketDataOrders(bookUpdate);
+                getAskBookSide().removeMarketDataOrders();
+                addOrMatchAskMarketDataOrders(bookUpdate);
+            } finally {
+                pool.exit();
+            }
         }
     }
 
@@ -72,10 +106,11 @@ public class OrderBook extends MarketDataEventListener {
         for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
+            var marketOrder = pool.marketDataOrder(Side.SELL, price, quantity);
             logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.SELL, price)){
                 matchMarketDataOrder(marketOrder);
+                pool.release(marketOrder);
             }else{
                 getAskBookSide().addMarketDataOrder(marketOrder);
             }
@@ -86,10 +121,11 @@ public class OrderBook extends MarketDataEventListener {
         for(AskBookUpdateDecoder.AskBookDecoder decoder : askBookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.BUY, price, quantity);
+            var marketOrder = pool.marketDataOrder(Side.BUY, price, quantity);
             logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.SELL, price)){
                 matchMarketDataOrder(marketOrder);
+                pool.release(marketOrder);
             }else{
                 getAskBookSide().addMarketDataOrder(marketOrder);
             }
@@ -100,10 +136,11 @@ public class OrderBook extends MarketDataEventListener {
         for(BidBookUpdateDecoder.BidBookDecoder decoder : bidBookUpdateDecoder.bidBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
+            var marketOrder = pool.marketDataOrder(Side.SELL, price, quantity);
             logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.BUY, price)){
                 matchMarketDataOrder(marketOrder);
+                pool.release(marketOrder);
             }else{
                 getBidBookSide().addMarketDataOrder(marketOrder);
             }
@@ -114,10 +151,11 @@ public class OrderBook extends MarketDataEventListener {
         for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
+            var marketOrder = pool.marketDataOrder(Side.SELL, price, quantity);
             logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.BUY, price)){
                 matchMarketDataOrder(marketOrder);
+                pool.release(marketOrder);
             }else{
                 getBidBookSide().addMarketDataOrder(marketOrder);
             }
@@ -126,14 +164,77 @@ public class OrderBook extends MarketDataEventListener {
 
     @Override
     public void onAskBook(AskBookUpdateDecoder askBook) {
-        getAskBookSide().removeMarketDataOrders();
-        addOrMatchAskMarketDataOrders(askBook);
+        publishWholeBook = true;
+        pool.enter();
+        try {
+            getAskBookSide().removeMarketDataOrders();
+            addOrMatchAskMarketDataOrders(askBook);
+        } finally {
+            pool.exit();
+        }
     }
 
     @Override
     public void onBidBook(BidBookUpdateDecoder bidBook) {
-        getBidBookSide().removeMarketDataOrders();
-        addOrMatchBidMarketDataOrders(bidBook);
+        publishWholeBook = true;
+        pool.enter();
+        try {
+            getBidBookSide().removeMarketDataOrders();
+            addOrMatchBidMarketDataOrders(bidBook);
+        } finally {
+            pool.exit();
+        }
+    }
+
+    /**
+     * Only touch the levels in the update, the market data at each price is replaced (or removed) and any of our
+     * limit orders resting there are left alone.
+     */
+    @Override
+    public void onBookDelta(BookDeltaDecoder bookDelta) {
+        //don't process updates from ourself.
+        if(bookDelta.source().equals(Source.ORDERBOOK)){
+            return;
+        }
+
+        publishWholeBook = true;
+        pool.enter();
+        try {
+            applyBookDelta(bookDelta);
+        } finally {
+            pool.exit();
+        }
+    }
+
+    private void applyBookDelta(BookDeltaDecoder bookDelta){
+        for(BookDeltaDecoder.LevelsDecoder level : bookDelta.levels()){
+            final long price = level.price();
+            final long quantity = level.size();
+
+            if(level.side() == BookSide.BID){
+                getBidBookSide().removeMarketDataOrdersAt(price);
+                if(level.action() != UpdateAction.DELETE && quantity > 0){
+                    addOrMatchMarketDataOrder(Side.BUY, price, quantity);
+                }
+            }else{
+                getAskBookSide().removeMarketDataOrdersAt(price);
+                if(level.action() != UpdateAction.DELETE && quantity > 0){
+                    addOrMatchMarketDataOrder(Side.SELL, price, quantity);
+                }
+            }
+        }
+    }
+
+    private void addOrMatchMarketDataOrder(final Side side, final long price, final long quantity){
+        var marketOrder = pool.marketDataOrder(side, price, quantity);
+        if(canMatch(side, price)){
+            matchMarketDataOrder(marketOrder);
+            pool.release(marketOrder);
+        }else if(side == Side.BUY){
+            getBidBookSide().addMarketDataOrder(marketOrder);
+        }else{
+            getAskBookSide().addMarketDataOrder(marketOrder);
+        }
     }
 
     public void matchOrder(final LimitOrderFlyweight limit) {
@@ -165,27 +266,66 @@ public class OrderBook extends MarketDataEventListener {
     }
 
     public void onLimitOrder(final LimitOrderFlyweight limit) {
-        if(canMatch(limit.getSide(), limit.getPrice())){
-            matchOrder(limit);
-        }else{
-            addLiquidity(limit);
-        }
+        pool.enter();
+        try {
+            if(canMatch(limit.getSide(), limit.getPrice())){
+                //whatever isn't filled is not left in the book, so we are done with the order
+                matchOrder(limit);
+                pool.release(limit);
+            }else{
+                addLiquidity(limit);
+            }
 
-        publishBook();
+            publishBook();
+        } finally {
+            pool.exit();
+        }
     }
 
     public void onCancelOrder(final long orderIdToCancel){
         logger.info("[ORDERBOOK] Cancelling order (id=:" + orderIdToCancel + ")");
-        var cancelVisitor = new CancelOrderVisitor(orderIdToCancel);
-        getAskBookSide().accept(cancelVisitor);
-        getBidBookSide().accept(cancelVisitor);
-        publishBook();
+        pool.enter();
+        try {
+            if(!getBidBookSide().cancelLimitOrder(orderIdToCancel) && !getAskBookSide().cancelLimitOrder(orderIdToCancel)){
+                logger.info("[ORDERBOOK] No resting order to cancel (id=:" + orderIdToCancel + ")");
+            }
+            publishBook();
+        } finally {
+            pool.exit();
+        }
     }
 
 
+    /**
+     * Publish what has changed since the last publish. If nothing has we still publish an empty delta, the algo only
+     * runs when a message reaches it so every event must produce one.
+     */
     public void publishBook(){
-        final var messageBuffer = getBookUpdateMessage();
-        marketDataChannel.publish(messageBuffer);
+        final boolean wholeBook = publishWholeBook
+                || getBidBookSide().hasTooManyChanges() || getAskBookSide().hasTooManyChanges();
+
+        if(publishDepth == publishBuffers.length){
+            publishBuffers = Arrays.copyOf(publishBuffers, publishDepth + 1);
+            publishBuffers[publishDepth] = new ExpandableDirectByteBuffer(1024);
+        }
+
+        final MutableDirectBuffer buffer = publishBuffers[publishDepth++];
+        try {
+            if(wholeBook){
+                encodeBookUpdate(buffer);
+            }else{
+                encodeBookDelta(buffer);
+            }
+
+            //before we publish, anything changed by whoever we publish to is for the next one
+            publishWholeBook = false;
+            getBidBookSide().clearChanges();
+            getAskBookSide().clearChanges();
+
+            marketDataChannel.publish(buffer);
+        } finally {
+            publishDepth--;
+        }
     }
 
     public MutableDirectBuffer getBookUpdateMessage(){
@@ -194,4 +334,39 @@ public class OrderBook extends MarketDataEventListener {
         getAskBookSide().accept(mktDataVisitor);
         return mktDataVisitor.end();
     }
+
+    private void encodeBookUpdate(final MutableDirectBuffer buffer){
+        mktDataVisitor.start(buffer);
+        getBidBookSide().accept(mktDataVisitor);
+        getAskBookSide().accept(mktDataVisitor);
+    }
+
+    /**
+     * Each changed level is sent with its quantity now, or as a delete if it has gone.
+     */
+    private void encodeBookDelta(final MutableDirectBuffer buffer){
+        deltaEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        deltaEncoder.venue(ReadOnlyMarketDataChannelPublishVisitor.VENUE);
+        deltaEncoder.instrumentId(ReadOnlyMarketDataChannelPublishVisitor.INSTRUMENT_ID);
+        deltaEncoder.source(Source.ORDERBOOK);
+
+        final BookDeltaEncoder.LevelsEncoder levels =
+                deltaEncoder.levelsCount(getBidBookSide().getChangedCount() + getAskBookSide().getChangedCount());
+
+        encodeChangedLevels(levels, getBidBookSide(), BookSide.BID);
+        encodeChangedLevels(levels, getAskBookSide(), BookSide.ASK);
+    }
+
+    private static void encodeChangedLevels(final BookDeltaEncoder.LevelsEncoder levels, final OrderBookSide side, final BookSide bookSide){
+        for(int i=0; i<side.getChangedCount(); i++){
+            final long price = side.getChangedPrice(i);
+            final OrderBookLevel level = side.getLevel(price);
+
+            if(level == null){
+                levels.next().side(bookSide).action(UpdateAction.DELETE).price(price).size(0L);
+            }else{
+                levels.next().side(bookSide).action(UpdateAction.MODIFY).price(price).size(level.getQuantity());
+            }
+        }
+    }
 }
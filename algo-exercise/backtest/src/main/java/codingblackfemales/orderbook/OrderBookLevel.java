@@ -17,6 +17,16 @@ public class OrderBookLevel extends IntrusiveLinkedListNode<OrderBookLevel> {
         super();
     }
 
+    /**
+     * Reset a level taken from the pool.
+     */
+    void reset(long price){
+        resetLinks();
+        this.price = price;
+        this.quantity = 0;
+        this.firstOrder = null;
+    }
+
     public long getPrice() {
         return price;
     }
@@ -0,0 +1,145 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import messages.order.Side;
+
+import java.util.Arrays;
+
+/**
+ * Free lists of levels and orders for the simulator's book, which hands them back here when they are unlinked, so
+ * once the book has reached its working size nothing is allocated per order or per tick.
+ *
+ * A fill or a book publish can dispatch straight back into the book while a visitor is still walking it, and that
+ * walk may hold on to something which has just been unlinked. So while the book is inside an operation
+ * ({@link #enter()} to {@link #exit()}) anything released is held back, and only goes back on the free lists when
+ * the outermost operation has finished. Not thread safe.
+ */
+public class OrderBookPool {
+
+    private OrderBookLevel[] freeLevels = new OrderBookLevel[16];
+    private int freeLevelCount = 0;
+
+    private MarketDataOrderFlyweight[] freeMarketDataOrders = new MarketDataOrderFlyweight[16];
+    private int freeMarketDataOrderCount = 0;
+
+    private LimitOrderFlyweight[] freeLimitOrders = new LimitOrderFlyweight[16];
+    private int freeLimitOrderCount = 0;
+
+    //released while inside an operation, waiting for it to finish
+    private Object[] pending = new Object[16];
+    private int pendingCount = 0;
+
+    private int depth = 0;
+    private long allocated = 0;
+
+    public OrderBookLevel level(final long price){
+        final OrderBookLevel level;
+
+        if(freeLevelCount > 0){
+            level = freeLevels[--freeLevelCount];
+            freeLevels[freeLevelCount] = null;
+        }else{
+            level = new OrderBookLevel();
+            allocated++;
+        }
+
+        level.reset(price);
+        return level;
+    }
+
+    public MarketDataOrderFlyweight marketDataOrder(final Side side, final long price, final long quantity){
+        if(freeMarketDataOrderCount > 0){
+            final MarketDataOrderFlyweight order = freeMarketDataOrders[--freeMarketDataOrderCount];
+            freeMarketDataOrders[freeMarketDataOrderCount] = null;
+            return order.set(side, price, quantity);
+        }
+
+        allocated++;
+        return new MarketDataOrderFlyweight(side, price, quantity);
+    }
+
+    public LimitOrderFlyweight limitOrder(final Side side, final long price, final long quantity, final long orderId){
+        if(freeLimitOrderCount > 0){
+            final LimitOrderFlyweight order = freeLimitOrders[--freeLimitOrderCount];
+            freeLimitOrders[freeLimitOrderCount] = null;
+            return order.set(side, price, quantity, orderId);
+        }
+
+        allocated++;
+        return new LimitOrderFlyweight(side, price, quantity, orderId);
+    }
+
+    /**
+     * Only for a level already unlinked from its side. The list keeps every node's head pointer on the real head, so
+     * once removed nothing left in the list can reach the level and it is safe to hand out again.
+     */
+    public void release(final OrderBookLevel level){
+        releaseOrHold(level);
+    }
+
+    public void release(final DefaultOrderFlyweight order){
+        if(order instanceof MarketDataOrderFlyweight || order instanceof LimitOrderFlyweight){
+            releaseOrHold(order);
+        }
+    }
+
+    /**
+     * The book is starting an operation, which may be re-entered.
+     */
+    public void enter(){
+        depth++;
+    }
+
+    /**
+     * The book has finished an operation, once the outermost has finished everything released during it is free.
+     */
+    public void exit(){
+        if(--depth == 0){
+            for(int i=0; i<pendingCount; i++){
+                free(pending[i]);
+                pending[i] = null;
+            }
+            pendingCount = 0;
+        }
+    }
+
+    /**
+     * The number of levels and orders the pool has ever had to allocate.
+     */
+    public long getAllocated(){
+        return allocated;
+    }
+
+    private void releaseOrHold(final Object item){
+        if(depth == 0){
+            free(item);
+            return;
+        }
+
+        if(pendingCount == pending.length){
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = item;
+    }
+
+    private void free(final Object item){
+        if(item instanceof OrderBookLevel){
+            if(freeLevelCount == freeLevels.length){
+                freeLevels = Arrays.copyOf(freeLevels, freeLevelCount * 2);
+            }
+            freeLevels[freeLevelCount++] = (OrderBookLevel) item;
+        }else if(item instanceof MarketDataOrderFlyweight){
+            if(freeMarketDataOrderCount == freeMarketDataOrders.length){
+                freeMarketDataOrders = Arrays.copyOf(freeMarketDataOrders, freeMarketDataOrderCount * 2);
+            }
+            freeMarketDataOrders[freeMarketDataOrderCount++] = (MarketDataOrderFlyweight) item;
+        }else if(item instanceof LimitOrderFlyweight){
+            if(freeLimitOrderCount == freeLimitOrders.length){
+                freeLimitOrders = Arrays.copyOf(freeLimitOrders, freeLimitOrderCount * 2);
+            }
+            freeLimitOrders[freeLimitOrderCount++] = (LimitOrderFlyweight) item;
+        }
+    }
+}
@@ -1,20 +1,24 @@
 package codingblackfemales.orderbook;
 
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.LongToObjOpenAddressingMap;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
-import codingblackfemales.orderbook.visitor.FilteringOrderBookVisitor;
 import codingblackfemales.orderbook.visitor.MutatingAddOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingRemoveAllMarketDataOrdersVisitor;
+import codingblackfemales.orderbook.visitor.MutatingRemoveMarketDataOrdersAtPriceVisitor;
 import codingblackfemales.orderbook.visitor.OrderBookVisitor;
 
-import java.util.Comparator;
-
 public abstract class OrderBookSide {
     private OrderBookLevel firstLevel;
-    private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor();
+    private final OrderBookPool pool;
+    private final MutatingAddOrderVisitor addOrderVisitor;
 
     private final MutatingRemoveAllMarketDataOrdersVisitor removeMarketDataOrderVisitor = new MutatingRemoveAllMarketDataOrdersVisitor();
 
+    private final MutatingRemoveMarketDataOrdersAtPriceVisitor removeMarketDataAtPriceVisitor = new MutatingRemoveMarketDataOrdersAtPriceVisitor();
+
     public boolean canMatch(OrderBookSide side, long quantity, long price){
         return false;
     }
@@ -27,90 +31,236 @@ public abstract class OrderBookSide {
         firstLevel = level;
     }
 
-    private final Comparator<Long> comparator;
+    private final PriceLevelIndex levelIndex;
+
+    //the limit orders resting on this side, so a cancel can go straight to the order
+    private final LongToObjMap<LimitOrderFlyweight> limitOrders = new LongToObjOpenAddressingMap<>();
+
+    public static final int MAX_CHANGED_LEVELS = 16;
 
-    protected OrderBookSide(Comparator<Long> comparator) {
-        this.comparator = comparator;
+    //prices whose level has changed since the book was last published, past the max we just send the whole book
+    private final long[] changedPrices = new long[MAX_CHANGED_LEVELS];
+    private int changedCount = 0;
+    private boolean tooManyChanges = false;
+
+    /**
+     * @param bestIsHighest true for bids, where the highest price is the top of the book
+     */
+    protected OrderBookSide(boolean bestIsHighest, OrderBookPool pool) {
+        this.levelIndex = new PriceLevelIndex(bestIsHighest);
+        this.pool = pool;
+        this.addOrderVisitor = new MutatingAddOrderVisitor(pool);
     }
 
-    public void accept(final OrderBookVisitor visitor){
+    public OrderBookPool getPool() {
+        return pool;
+    }
 
-        visitor.visitSide(this);
+    /**
+     * The level at the price, or null if there isn't one.
+     */
+    public OrderBookLevel getLevel(long price){
+        return levelIndex.get(price);
+    }
 
-        var levelToVisit = getFirstLevel();
+    public int getLevelCount(){
+        return levelIndex.size();
+    }
+
+    /**
+     * The level i levels down from the top of the book, or null if there aren't that many.
+     */
+    public OrderBookLevel getLevelFromTop(int i){
+        return levelIndex.fromBest(i);
+    }
+
+    /**
+     * Note that the level at the price has changed (or gone) since we last published the book.
+     */
+    public void levelChanged(long price){
+        if(tooManyChanges){
+            return;
+        }
 
-        //are we the first level...
-        if(isNewFirstLevel(levelToVisit, visitor)){
-            OrderBookLevel level = visitor.onNoFirstLevel();
-            if(level != null) {
-                if(levelToVisit != null) {
-                    levelToVisit.insertFirst(levelToVisit, level);
-                }
-                setFirstLevel(level);
-                level.accept(visitor, this);
+        for(int i=0; i<changedCount; i++){
+            if(changedPrices[i] == price){
+                return;
             }
+        }
+
+        if(changedCount == MAX_CHANGED_LEVELS){
+            tooManyChanges = true;
             return;
-        }else {
-            visitOneLevel(visitor, levelToVisit, levelToVisit.next());
         }
 
-        levelToVisit = levelToVisit.next();
+        changedPrices[changedCount++] = price;
+    }
+
+    public int getChangedCount(){
+        return changedCount;
+    }
+
+    public long getChangedPrice(int i){
+        return changedPrices[i];
+    }
+
+    /**
+     * True if more levels have changed than we keep track of, so only the whole book will do.
+     */
+    public boolean hasTooManyChanges(){
+        return tooManyChanges;
+    }
+
+    public void clearChanges(){
+        changedCount = 0;
+        tooManyChanges = false;
+    }
+
+    /**
+     * The visitor sees the side and then chooses which of its levels to walk, see {@link OrderBookVisitor#walk}.
+     */
+    public void accept(final OrderBookVisitor visitor){
+        visitor.visitSide(this);
+        visitor.walk(this);
+    }
+
+    /**
+     * Visit every level from the top of the book.
+     */
+    public void acceptAllLevels(final OrderBookVisitor visitor){
+        var levelToVisit = getFirstLevel();
 
         while(levelToVisit != null){
-            visitOneLevel(visitor, levelToVisit, levelToVisit.next());
-            levelToVisit = levelToVisit.next();
+            //read next first, the visitor may unlink the level
+            final OrderBookLevel next = levelToVisit.next();
+            levelToVisit.accept(visitor, this);
+            levelToVisit = next;
+        }
+    }
+
+    /**
+     * Visit just the level at the price, found (or added) through the index.
+     */
+    public void acceptAtPrice(final OrderBookVisitor visitor, final long price){
+        OrderBookLevel level = levelIndex.get(price);
+
+        if(level == null){
+            level = addLevel(visitor, price);
+            if(level == null){
+                return;
+            }
         }
+
+        level.accept(visitor, this);
     }
 
-    private void visitOneLevel(final OrderBookVisitor visitor, OrderBookLevel levelToVisit, OrderBookLevel nextLevel) {
-        if (visitor instanceof FilteringOrderBookVisitor) {
+    private OrderBookLevel addLevel(final OrderBookVisitor visitor, final long price){
+        final OrderBookLevel better = levelIndex.betterThan(price);
+        final OrderBookLevel level;
 
-            long priceToFind = ((FilteringOrderBookVisitor) visitor).getPrice();
+        if(better == null){
+            level = visitor.onNoFirstLevel();
+            if(level == null){
+                return null;
+            }
 
-            if (priceToFind == levelToVisit.getPrice()) {
-                levelToVisit.accept(visitor, this);
-            } else if (isBetweenLevels(levelToVisit, nextLevel, priceToFind)) {
-                OrderBookLevel level = visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
-                levelToVisit.insertAfter(levelToVisit,level, nextLevel);
-            } else if (isNewDeepestLevel(levelToVisit, nextLevel, priceToFind)) {
-                OrderBookLevel level = visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
-                levelToVisit.last().add(level);
+            final OrderBookLevel currentFirst = getFirstLevel();
+            if(currentFirst != null){
+                currentFirst.insertFirst(currentFirst, level);
             }
+            setFirstLevel(level);
         }else{
-            levelToVisit.accept(visitor, this);
+            final OrderBookLevel worse = better.next();
+            level = visitor.missingBookLevel(better, worse, price);
+            if(level == null){
+                return null;
+            }
+
+            if(worse != null){
+                better.insertAfter(better, level, worse);
+            }else{
+                better.last().add(level);
+            }
         }
-    }
 
-    MutatingAddOrderVisitor getAddOrderVisitor() {
-        return addOrderVisitor;
+        levelIndex.add(level);
+        return level;
     }
 
-    boolean isNewFirstLevel(OrderBookLevel currentFirst, OrderBookVisitor visitor) {
-        if(currentFirst == null) {
-            return true;
+    /**
+     * Unlink a level from the side, for visitors which have emptied it.
+     */
+    public void removeLevel(OrderBookLevel level){
+        if(levelIndex.remove(level)){
+            levelChanged(level.getPrice());
+            level.remove();
+            //the index always knows the best level, whatever the list's head pointers say
+            setFirstLevel(levelIndex.best());
+            pool.release(level);
         }
+    }
 
-        if( visitor instanceof FilteringOrderBookVisitor) {
-            return comparator.compare(((FilteringOrderBookVisitor) visitor).getPrice(), currentFirst.getPrice()) == -1;
-        } else {
-            return false;
+    /**
+     * Unlink an order from its level, for visitors which have filled or removed it.
+     */
+    public void removeOrder(OrderBookLevel level, DefaultOrderFlyweight order){
+        levelChanged(level.getPrice());
+        level.setFirstOrder(order.remove());
+        if(order instanceof LimitOrderFlyweight){
+            limitOrders.remove(((LimitOrderFlyweight) order).getOrderId());
         }
+        pool.release(order);
     }
 
-    boolean isBetweenLevels(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next != null && comparator.compare(previous.getPrice(), price) == -1 && comparator.compare(next.getPrice() , price) == 1;
+    public LimitOrderFlyweight getLimitOrder(long orderId){
+        return limitOrders.get(orderId);
     }
 
-    boolean isNewDeepestLevel(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next == null && comparator.compare(previous.getPrice(), price) == -1;
+    /**
+     * Cancel a resting limit order by id, taking its quantity off its level and the level off the book if nothing is
+     * left on it.
+     *
+     * @return false if the order is not resting on this side
+     */
+    public boolean cancelLimitOrder(long orderId){
+        final LimitOrderFlyweight order = limitOrders.remove(orderId);
+
+        if(order == null){
+            return false;
+        }
+
+        final OrderBookLevel level = levelIndex.get(order.getPrice());
+
+        levelChanged(level.getPrice());
+        level.setFirstOrder(order.remove());
+        level.setQuantity(level.getQuantity() - order.getQuantity());
+        pool.release(order);
+
+        if(level.getFirstOrder() == null){
+            removeLevel(level);
+        }
+
+        return true;
     }
 
+    MutatingAddOrderVisitor getAddOrderVisitor() {
+        return addOrderVisitor;
+    }
 
     void removeMarketDataOrders(){
         this.accept(removeMarketDataOrderVisitor);
     }
 
+    void removeMarketDataOrdersAt(long price){
+        final OrderBookLevel level = levelIndex.get(price);
+        if(level != null){
+            removeMarketDataAtPriceVisitor.setPrice(price);
+            level.accept(removeMarketDataAtPriceVisitor, this);
+        }
+    }
+
     void addMarketDataOrder(MarketDataOrderFlyweight order){
+        levelChanged(order.getPrice());
         this.getAddOrderVisitor().setOrderToAdd(order);
         this.accept(this.getAddOrderVisitor());
     }
@@ -118,6 +268,8 @@ public abstract class OrderBookSide {
     void addLimitOrder(LimitOrderFlyweight order){
         this.getAddOrderVisitor().setOrderToAdd(order);
         this.accept(this.getAddOrderVisitor());
+        limitOrders.put(order.getOrderId(), order);
+        levelChanged(order.getPrice());
     }
 
 }
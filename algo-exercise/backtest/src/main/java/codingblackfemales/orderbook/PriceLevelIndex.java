@@ -0,0 +1,113 @@
+package codingblackfemales.orderbook;
+
+import java.util.Arrays;
+
+/**
+ * The levels of one side of the book indexed by price, in a sorted primitive array, so finding the level for a price
+ * (or the levels either side of where a new one goes) is a binary search rather than a walk down the book.
+ *
+ * Levels are kept worst first, so the best level, which is the one most often added and removed, is at the end and
+ * comes out without moving anything. Prices are stored as a rank, the price for bids and minus the price for asks,
+ * so better always means a higher rank.
+ */
+final class PriceLevelIndex {
+
+    private final boolean bestIsHighest;
+
+    private long[] ranks = new long[16];
+    private OrderBookLevel[] levels = new OrderBookLevel[16];
+    private int size = 0;
+
+    PriceLevelIndex(final boolean bestIsHighest) {
+        this.bestIsHighest = bestIsHighest;
+    }
+
+    int size(){
+        return size;
+    }
+
+    OrderBookLevel get(final long price){
+        final int index = Arrays.binarySearch(ranks, 0, size, rank(price));
+        return index >= 0 ? levels[index] : null;
+    }
+
+    /**
+     * The level just better than the price, or null if the price would be the new best level.
+     */
+    OrderBookLevel betterThan(final long price){
+        int index = Arrays.binarySearch(ranks, 0, size, rank(price));
+        index = index >= 0 ? index + 1 : -index - 1;
+        return index < size ? levels[index] : null;
+    }
+
+    /**
+     * The level just worse than the price, or null if the price would be the new deepest level.
+     */
+    OrderBookLevel worseThan(final long price){
+        int index = Arrays.binarySearch(ranks, 0, size, rank(price));
+        index = index >= 0 ? index - 1 : -index - 2;
+        return index >= 0 ? levels[index] : null;
+    }
+
+    OrderBookLevel best(){
+        return size > 0 ? levels[size - 1] : null;
+    }
+
+    /**
+     * The level i levels down from the best, 0 being the best.
+     */
+    OrderBookLevel fromBest(final int i){
+        return i < size ? levels[size - 1 - i] : null;
+    }
+
+    void add(final OrderBookLevel level){
+        final long rank = rank(level.getPrice());
+        int index = Arrays.binarySearch(ranks, 0, size, rank);
+
+        if(index >= 0){
+            throw new IllegalStateException("Already have a level at price: " + level.getPrice());
+        }
+
+        index = -index - 1;
+
+        if(size == ranks.length){
+            ranks = Arrays.copyOf(ranks, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+
+        final int toMove = size - index;
+        if(toMove > 0){
+            System.arraycopy(ranks, index, ranks, index + 1, toMove);
+            System.arraycopy(levels, index, levels, index + 1, toMove);
+        }
+
+        ranks[index] = rank;
+        levels[index] = level;
+        size++;
+    }
+
+    /**
+     * @return false if the level was not in the index
+     */
+    boolean remove(final OrderBookLevel level){
+        final int index = Arrays.binarySearch(ranks, 0, size, rank(level.getPrice()));
+
+        if(index < 0 || levels[index] != level){
+            return false;
+        }
+
+        final int toMove = size - index - 1;
+        if(toMove > 0){
+            System.arraycopy(ranks, index + 1, ranks, index, toMove);
+            System.arraycopy(levels, index + 1, levels, index, toMove);
+        }
+
+        size--;
+        levels[size] = null;
+        return true;
+    }
+
+    private long rank(final long price){
+        return bestIsHighest ? price : -price;
+    }
+}
@@ -21,6 +21,10 @@ public class OrderChannel {
     }
 
     public void publishFill(final long fillQuantity, final long price, final LimitOrderFlyweight limit){
+        publishFill(fillQuantity, price, limit.getOrderId());
+    }
+
+    public void publishFill(final long fillQuantity, final long price, final long orderId){
 
         final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
         final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
@@ -31,7 +35,7 @@ public class OrderChannel {
         fillEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
 
 
-        fillEncoder.orderId(limit.getOrderId());
+        fillEncoder.orderId(orderId);
         fillEncoder.quantity(fillQuantity);
         fillEncoder.price(price);
 
@@ -0,0 +1,52 @@
+package codingblackfemales.orderbook.consumer;
+
+import codingblackfemales.orderbook.offheap.OffHeapOrderBook;
+import codingblackfemales.sequencer.event.OrderEventListener;
+import messages.order.*;
+
+/**
+ * Feeds the algo's orders into an {@link OffHeapOrderBook}, straight from the decoder so nothing is allocated per order.
+ */
+public class OffHeapOrderBookInboundOrderConsumer extends OrderEventListener {
+
+    private final OffHeapOrderBook book;
+
+    public OffHeapOrderBookInboundOrderConsumer(OffHeapOrderBook book) {
+        this.book = book;
+    }
+
+    @Override
+    public void onCreateOrder(CreateOrderDecoder create) {
+        book.onLimitOrder(create.side(), create.price(), create.quantity(), create.orderId());
+    }
+
+    @Override
+    public void onCancelOrder(CancelOrderDecoder cancel) {
+        book.onCancelOrder(cancel.orderId());
+    }
+
+    @Override
+    public void onAckedOrder(AckedOrderDecoder acked) {
+
+    }
+
+    @Override
+    public void onCancelAckedOrder(CancelAckedOrderDecoder cancelAcked) {
+
+    }
+
+    @Override
+    public void onPendingOrder(PendingOrderDecoder pending) {
+
+    }
+
+    @Override
+    public void onPartialFill(PartialFillOrderDecoder partialFill) {
+
+    }
+
+    @Override
+    public void onFill(FillOrderDecoder fill) {
+
+    }
+}
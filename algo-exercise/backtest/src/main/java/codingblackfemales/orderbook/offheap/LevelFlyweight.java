@@ -0,0 +1,81 @@
+package codingblackfemales.orderbook.offheap;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * A view over one price level record in a {@link Slab}, its orders are a doubly linked queue of order handles.
+ */
+public class LevelFlyweight {
+
+    public static final int PRICE_OFFSET = 0;
+    public static final int QUANTITY_OFFSET = 8;
+    public static final int FIRST_ORDER_OFFSET = 16;
+    public static final int LAST_ORDER_OFFSET = 20;
+    public static final int ORDER_COUNT_OFFSET = 24;
+    public static final int LENGTH = 32;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+    private int handle = Slab.NULL;
+
+    public LevelFlyweight wrap(final MutableDirectBuffer buffer, final int handle){
+        this.buffer = buffer;
+        this.handle = handle;
+        this.offset = handle * LENGTH;
+        return this;
+    }
+
+    public int handle(){
+        return handle;
+    }
+
+    public long getPrice(){
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+
+    public LevelFlyweight setPrice(final long price){
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        return this;
+    }
+
+    public long getQuantity(){
+        return buffer.getLong(offset + QUANTITY_OFFSET);
+    }
+
+    public LevelFlyweight setQuantity(final long quantity){
+        buffer.putLong(offset + QUANTITY_OFFSET, quantity);
+        return this;
+    }
+
+    public int getFirstOrder(){
+        return buffer.getInt(offset + FIRST_ORDER_OFFSET);
+    }
+
+    public LevelFlyweight setFirstOrder(final int order){
+        buffer.putInt(offset + FIRST_ORDER_OFFSET, order);
+        return this;
+    }
+
+    public int getLastOrder(){
+        return buffer.getInt(offset + LAST_ORDER_OFFSET);
+    }
+
+    public LevelFlyweight setLastOrder(final int order){
+        buffer.putInt(offset + LAST_ORDER_OFFSET, order);
+        return this;
+    }
+
+    public int getOrderCount(){
+        return buffer.getInt(offset + ORDER_COUNT_OFFSET);
+    }
+
+    public LevelFlyweight setOrderCount(final int count){
+        buffer.putInt(offset + ORDER_COUNT_OFFSET, count);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "Level(handle=" + handle + ",price=" + getPrice() + ",quantity=" + getQuantity() + ")";
+    }
+}
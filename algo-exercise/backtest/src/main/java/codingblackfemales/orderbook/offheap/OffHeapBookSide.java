@@ -0,0 +1,261 @@
+package codingblackfemales.orderbook.offheap;
+
+import codingblackfemales.orderbook.order.SlabOrderFlyweight;
+import messages.order.Side;
+
+import java.util.Arrays;
+
+/**
+ * One side of an {@link OffHeapOrderBook}. Levels and orders are records in the book's slabs, a level holds a first
+ * in first out queue of its orders linked by handle, and the levels are indexed by price in a sorted primitive array
+ * in the same way as the heap book's price index: worst first, so the best level is at the end, with prices stored
+ * as a rank (the price for bids, minus the price for asks) so better always means a higher rank.
+ *
+ * Everything is addressed by int handle, {@link Slab#NULL} where there isn't one.
+ */
+public class OffHeapBookSide {
+
+    private final boolean bestIsHighest;
+    private final Slab levels;
+    private final Slab orders;
+
+    private final LevelFlyweight level = new LevelFlyweight();
+    private final SlabOrderFlyweight order = new SlabOrderFlyweight();
+    private final SlabOrderFlyweight linked = new SlabOrderFlyweight();
+
+    private long[] ranks = new long[16];
+    private int[] levelHandles = new int[16];
+    private int size = 0;
+
+    /**
+     * @param bestIsHighest true for bids, where the highest price is the top of the book
+     */
+    public OffHeapBookSide(final boolean bestIsHighest, final Slab levels, final Slab orders) {
+        if(levels.recordLength() != LevelFlyweight.LENGTH || orders.recordLength() != SlabOrderFlyweight.LENGTH){
+            throw new IllegalArgumentException("Slab record lengths don't match the level and order layouts");
+        }
+
+        this.bestIsHighest = bestIsHighest;
+        this.levels = levels;
+        this.orders = orders;
+    }
+
+    public int levelCount(){
+        return size;
+    }
+
+    /**
+     * The level i levels down from the top of the book, 0 being the best.
+     */
+    public int levelAt(final int i){
+        return i < size ? levelHandles[size - 1 - i] : Slab.NULL;
+    }
+
+    public int bestLevel(){
+        return size > 0 ? levelHandles[size - 1] : Slab.NULL;
+    }
+
+    public int findLevel(final long price){
+        final int index = Arrays.binarySearch(ranks, 0, size, rank(price));
+        return index >= 0 ? levelHandles[index] : Slab.NULL;
+    }
+
+    /**
+     * True if an order on the other side at the price would trade with our best level.
+     */
+    public boolean isCrossedBy(final long price){
+        return size > 0 && ranks[size - 1] >= rank(price);
+    }
+
+    public long levelPrice(final int levelHandle){
+        return level(levelHandle).getPrice();
+    }
+
+    public long levelQuantity(final int levelHandle){
+        return level(levelHandle).getQuantity();
+    }
+
+    public int levelOrderCount(final int levelHandle){
+        return level(levelHandle).getOrderCount();
+    }
+
+    public int firstOrder(final int levelHandle){
+        return level(levelHandle).getFirstOrder();
+    }
+
+    public int nextOrder(final int orderHandle){
+        return order(orderHandle).getNext();
+    }
+
+    /**
+     * Add an order to the back of the queue at its price, adding the level if we don't have it.
+     *
+     * @return the order's handle
+     */
+    public int addOrder(final Side side, final long price, final long quantity, final long orderId, final boolean marketData){
+        int levelHandle = findLevel(price);
+        if(levelHandle == Slab.NULL){
+            levelHandle = addLevel(price);
+        }
+
+        final int orderHandle = orders.allocate();
+        order(orderHandle)
+                .setPrice(price)
+                .setQuantity(quantity)
+                .setOrderId(orderId)
+                .setSide(side)
+                .setMarketData(marketData)
+                .setLevel(levelHandle)
+                .setNext(Slab.NULL);
+
+        level(levelHandle);
+        final int last = level.getLastOrder();
+        order.setPrevious(last);
+
+        if(last == Slab.NULL){
+            level.setFirstOrder(orderHandle);
+        }else{
+            linked.wrap(orders.buffer(), last).setNext(orderHandle);
+        }
+
+        level.setLastOrder(orderHandle)
+                .setOrderCount(level.getOrderCount() + 1)
+                .setQuantity(level.getQuantity() + quantity);
+
+        return orderHandle;
+    }
+
+    /**
+     * Take some of an order's quantity, leaving it in its place in the queue.
+     */
+    public void reduceOrder(final int orderHandle, final long quantity){
+        order(orderHandle).setQuantity(order.getQuantity() - quantity);
+        level(order.getLevel()).setQuantity(level.getQuantity() - quantity);
+    }
+
+    /**
+     * Unlink the order and free it, along with its level if that leaves the level empty.
+     */
+    public void removeOrder(final int orderHandle){
+        order(orderHandle);
+        final int levelHandle = order.getLevel();
+        final int previous = order.getPrevious();
+        final int next = order.getNext();
+        final long quantity = order.getQuantity();
+
+        level(levelHandle);
+
+        if(previous == Slab.NULL){
+            level.setFirstOrder(next);
+        }else{
+            linked.wrap(orders.buffer(), previous).setNext(next);
+        }
+
+        if(next == Slab.NULL){
+            level.setLastOrder(previous);
+        }else{
+            linked.wrap(orders.buffer(), next).setPrevious(previous);
+        }
+
+        level.setOrderCount(level.getOrderCount() - 1)
+                .setQuantity(level.getQuantity() - quantity);
+
+        orders.free(orderHandle);
+
+        if(level.getOrderCount() == 0){
+            removeLevel(levelHandle);
+        }
+    }
+
+    /**
+     * Remove the market data at every price, leaving any limit orders where they are.
+     */
+    public void removeMarketData(){
+        //if the level went the ones after it have moved down one, so look at the same index again
+        for(int i=0; i<size;){
+            final int before = size;
+            removeMarketDataAtLevel(levelHandles[i]);
+            if(size == before){
+                i++;
+            }
+        }
+    }
+
+    public void removeMarketDataAt(final long price){
+        final int levelHandle = findLevel(price);
+        if(levelHandle != Slab.NULL){
+            removeMarketDataAtLevel(levelHandle);
+        }
+    }
+
+    private void removeMarketDataAtLevel(final int levelHandle){
+        int orderHandle = level(levelHandle).getFirstOrder();
+        int remaining = level.getOrderCount();
+
+        //count down rather than test the level, removing its last order frees it
+        while(remaining-- > 0){
+            final int next = order(orderHandle).getNext();
+            if(order.isMarketData()){
+                removeOrder(orderHandle);
+            }
+            orderHandle = next;
+        }
+    }
+
+    private int addLevel(final long price){
+        final long rank = rank(price);
+        final int index = -Arrays.binarySearch(ranks, 0, size, rank) - 1;
+
+        if(size == ranks.length){
+            ranks = Arrays.copyOf(ranks, size * 2);
+            levelHandles = Arrays.copyOf(levelHandles, size * 2);
+        }
+
+        final int toMove = size - index;
+        if(toMove > 0){
+            System.arraycopy(ranks, index, ranks, index + 1, toMove);
+            System.arraycopy(levelHandles, index, levelHandles, index + 1, toMove);
+        }
+
+        final int levelHandle = levels.allocate();
+        level(levelHandle)
+                .setPrice(price)
+                .setFirstOrder(Slab.NULL)
+                .setLastOrder(Slab.NULL);
+
+        ranks[index] = rank;
+        levelHandles[index] = levelHandle;
+        size++;
+
+        return levelHandle;
+    }
+
+    private void removeLevel(final int levelHandle){
+        final int index = Arrays.binarySearch(ranks, 0, size, rank(level(levelHandle).getPrice()));
+
+        if(index < 0 || levelHandles[index] != levelHandle){
+            throw new IllegalStateException("Level is not on this side: " + level);
+        }
+
+        final int toMove = size - index - 1;
+        if(toMove > 0){
+            System.arraycopy(ranks, index + 1, ranks, index, toMove);
+            System.arraycopy(levelHandles, index + 1, levelHandles, index, toMove);
+        }
+
+        size--;
+        levels.free(levelHandle);
+    }
+
+    private LevelFlyweight level(final int levelHandle){
+        return level.wrap(levels.buffer(), levelHandle);
+    }
+
+    private SlabOrderFlyweight order(final int orderHandle){
+        return order.wrap(orders.buffer(), orderHandle);
+    }
+
+    private long rank(final long price){
+        return bestIsHighest ? price : -price;
+    }
+}
@@ -0,0 +1,357 @@
+package codingblackfemales.orderbook.offheap;
+
+import codingblackfemales.collection.extrusive.LongToIntOpenAddressingMap;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.SlabOrderFlyweight;
+import codingblackfemales.sequencer.event.MarketDataEventListener;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookSide;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.UpdateAction;
+import messages.marketdata.Venue;
+import messages.order.Side;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * An alternative to {@link codingblackfemales.orderbook.OrderBook} which keeps its levels and orders in off-heap
+ * {@link Slab}s rather than as linked heap objects, so walking the book reads packed records and nothing the book
+ * holds is visible to the garbage collector. Resting limit orders are found for cancels through a map from order id to
+ * order handle.
+ *
+ * Limit orders match and rest as they do in the heap book, but it is not a drop in replacement:
+ * <ul>
+ *     <li>each market data level goes on the side it was sent for, where the heap book puts the asks of a full book
+ *     update on its bid side and sends the levels of an ask book update as buys</li>
+ *     <li>when market data trades with a resting order the level quantity goes down with it, the heap book leaves the
+ *     level quantity as it was</li>
+ *     <li>every publish is the whole book, there are no deltas of just the changed levels</li>
+ * </ul>
+ *
+ * Matching can re-enter the book (a fill goes to the algo, which may send another order), so we never hold a handle
+ * across a publish, and copy out anything we need from a record before calling out. Not thread safe.
+ */
+public class OffHeapOrderBook extends MarketDataEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapOrderBook.class);
+
+    public static final int DEFAULT_INITIAL_ORDERS = 256;
+
+    private final MarketDataChannel marketDataChannel;
+    private final OrderChannel orderChannel;
+
+    private final Slab levels;
+    private final Slab orders;
+    private final OffHeapBookSide bidSide;
+    private final OffHeapBookSide askSide;
+
+    private final LongToIntOpenAddressingMap limitOrders = new LongToIntOpenAddressingMap(Slab.NULL);
+    private final SlabOrderFlyweight order = new SlabOrderFlyweight();
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
+
+    //publishing can re-enter the book and publish again, so each level of nesting encodes into its own buffer
+    private ExpandableDirectByteBuffer[] publishBuffers = new ExpandableDirectByteBuffer[]{new ExpandableDirectByteBuffer(1024)};
+    private int publishDepth = 0;
+
+    //what we publish the book as, until a full book update tells us otherwise
+    private Venue venue;
+    private long instrumentId;
+
+    public OffHeapOrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel,
+                            final Venue venue, final long instrumentId) {
+        this(marketDataChannel, orderChannel, venue, instrumentId, DEFAULT_INITIAL_ORDERS);
+    }
+
+    /**
+     * @param initialOrders the number of orders (and levels) the slabs have room for before they first grow
+     */
+    public OffHeapOrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel,
+                            final Venue venue, final long instrumentId, final int initialOrders) {
+        this.marketDataChannel = marketDataChannel;
+        this.orderChannel = orderChannel;
+        this.venue = venue;
+        this.instrumentId = instrumentId;
+        this.levels = new Slab(LevelFlyweight.LENGTH, initialOrders);
+        this.orders = new Slab(SlabOrderFlyweight.LENGTH, initialOrders);
+        this.bidSide = new OffHeapBookSide(true, levels, orders);
+        this.askSide = new OffHeapBookSide(false, levels, orders);
+    }
+
+    public OffHeapBookSide getBidSide() {
+        return bidSide;
+    }
+
+    public OffHeapBookSide getAskSide() {
+        return askSide;
+    }
+
+    public Slab getLevels() {
+        return levels;
+    }
+
+    public Slab getOrders() {
+        return orders;
+    }
+
+    public boolean canMatch(final Side side, final long price){
+        return side == Side.BUY ? askSide.isCrossedBy(price) : bidSide.isCrossedBy(price);
+    }
+
+    @Override
+    public void onBookUpdate(BookUpdateDecoder bookUpdate) {
+        //don't process updates from ourself.
+        if(bookUpdate.source() == Source.ORDERBOOK){
+            return;
+        }
+
+        venue = bookUpdate.venue();
+        instrumentId = bookUpdate.instrumentId();
+
+        enter();
+        try {
+            //clear both sides first, so the new market data never trades with the old
+            bidSide.removeMarketData();
+            askSide.removeMarketData();
+
+            for(BookUpdateDecoder.BidBookDecoder bid : bookUpdate.bidBook()){
+                addOrMatchMarketData(Side.BUY, bid.price(), bid.size());
+            }
+
+            for(BookUpdateDecoder.AskBookDecoder ask : bookUpdate.askBook()){
+                addOrMatchMarketData(Side.SELL, ask.price(), ask.size());
+            }
+        } finally {
+            exit();
+        }
+    }
+
+    @Override
+    public void onAskBook(AskBookUpdateDecoder askBook) {
+        enter();
+        try {
+            askSide.removeMarketData();
+            for(AskBookUpdateDecoder.AskBookDecoder ask : askBook.askBook()){
+                addOrMatchMarketData(Side.SELL, ask.price(), ask.size());
+            }
+        } finally {
+            exit();
+        }
+    }
+
+    @Override
+    public void onBidBook(BidBookUpdateDecoder bidBook) {
+        enter();
+        try {
+            bidSide.removeMarketData();
+            for(BidBookUpdateDecoder.BidBookDecoder bid : bidBook.bidBook()){
+                addOrMatchMarketData(Side.BUY, bid.price(), bid.size());
+            }
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Only touch the levels in the update, the market data at each price is replaced (or removed) and any of our
+     * limit orders resting there are left alone.
+     */
+    @Override
+    public void onBookDelta(BookDeltaDecoder bookDelta) {
+        //don't process updates from ourself.
+        if(bookDelta.source() == Source.ORDERBOOK){
+            return;
+        }
+
+        enter();
+        try {
+            for(BookDeltaDecoder.LevelsDecoder level : bookDelta.levels()){
+                final long price = level.price();
+                final long quantity = level.size();
+                final boolean bid = level.side() == BookSide.BID;
+
+                (bid ? bidSide : askSide).removeMarketDataAt(price);
+
+                if(level.action() != UpdateAction.DELETE && quantity > 0){
+                    addOrMatchMarketData(bid ? Side.BUY : Side.SELL, price, quantity);
+                }
+            }
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Match the order against the other side or, if it doesn't cross, rest it. As in the heap book whatever doesn't
+     * fill straight away is not left in the book.
+     */
+    public void onLimitOrder(final Side side, final long price, final long quantity, final long orderId) {
+        enter();
+        try {
+            if(canMatch(side, price)){
+                matchLimitOrder(side, price, quantity, orderId);
+            }else{
+                if(logger.isInfoEnabled()){
+                    logger.info("[ORDERBOOK] Adding passive limit order " + orderId + " " + side + " " + quantity + "@" + price);
+                }
+                final int handle = (side == Side.BUY ? bidSide : askSide).addOrder(side, price, quantity, orderId, false);
+                limitOrders.put(orderId, handle);
+            }
+
+            publishBook();
+        } finally {
+            exit();
+        }
+    }
+
+    public void onCancelOrder(final long orderIdToCancel){
+        logger.info("[ORDERBOOK] Cancelling order (id=:" + orderIdToCancel + ")");
+        enter();
+        try {
+            final int handle = limitOrders.remove(orderIdToCancel);
+
+            if(handle == Slab.NULL){
+                logger.info("[ORDERBOOK] No resting order to cancel (id=:" + orderIdToCancel + ")");
+            }else{
+                sideOf(handle).removeOrder(handle);
+            }
+
+            publishBook();
+        } finally {
+            exit();
+        }
+    }
+
+    private void matchLimitOrder(final Side side, final long price, final long quantity, final long orderId){
+        final OffHeapBookSide other = side == Side.BUY ? askSide : bidSide;
+        long remaining = quantity;
+
+        //publishing a fill can change the book under us, so start again from the top each time
+        while(remaining > 0 && other.isCrossedBy(price)){
+            final int handle = other.firstOrder(other.bestLevel());
+            final long restingPrice = order.wrap(orders.buffer(), handle).getPrice();
+            final long fillQuantity = take(other, handle, remaining);
+
+            remaining -= fillQuantity;
+
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] Filled " + fillQuantity + "@" + restingPrice + " for order:" + orderId);
+            }
+            orderChannel.publishFill(fillQuantity, restingPrice, orderId);
+        }
+    }
+
+    private void addOrMatchMarketData(final Side side, final long price, final long quantity){
+        if(!canMatch(side, price)){
+            (side == Side.BUY ? bidSide : askSide).addOrder(side, price, quantity, 0, true);
+            return;
+        }
+
+        final OffHeapBookSide other = side == Side.BUY ? askSide : bidSide;
+        long remaining = quantity;
+
+        while(remaining > 0 && other.isCrossedBy(price)){
+            final int handle = other.firstOrder(other.bestLevel());
+            order.wrap(orders.buffer(), handle);
+            final boolean marketData = order.isMarketData();
+            final long restingOrderId = order.getOrderId();
+            final long fillQuantity = take(other, handle, remaining);
+
+            remaining -= fillQuantity;
+
+            if(!marketData){
+                if(logger.isInfoEnabled()){
+                    logger.info("[ORDERBOOK] Filled " + fillQuantity + "@" + price + " for order:" + restingOrderId);
+                }
+                orderChannel.publishFill(fillQuantity, price, restingOrderId);
+            }
+        }
+    }
+
+    /**
+     * Take up to the quantity from the resting order, removing it if it is used up.
+     *
+     * @return the quantity taken
+     */
+    private long take(final OffHeapBookSide side, final int handle, final long quantity){
+        order.wrap(orders.buffer(), handle);
+        final long available = order.getQuantity();
+
+        if(quantity < available){
+            side.reduceOrder(handle, quantity);
+            return quantity;
+        }
+
+        if(!order.isMarketData()){
+            limitOrders.remove(order.getOrderId());
+        }
+        side.removeOrder(handle);
+        return available;
+    }
+
+    private OffHeapBookSide sideOf(final int handle){
+        return order.wrap(orders.buffer(), handle).getSide() == Side.BUY ? bidSide : askSide;
+    }
+
+    public void publishBook(){
+        if(publishDepth == publishBuffers.length){
+            publishBuffers = Arrays.copyOf(publishBuffers, publishDepth + 1);
+            publishBuffers[publishDepth] = new ExpandableDirectByteBuffer(1024);
+        }
+
+        final MutableDirectBuffer buffer = publishBuffers[publishDepth++];
+        try {
+            encodeBook(buffer);
+            marketDataChannel.publish(buffer);
+        } finally {
+            publishDepth--;
+        }
+    }
+
+    /**
+     * Encode both sides of the book, best level first, into the buffer.
+     */
+    public MutableDirectBuffer encodeBook(final MutableDirectBuffer buffer){
+        bookUpdateEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        bookUpdateEncoder.venue(venue);
+        bookUpdateEncoder.instrumentId(instrumentId);
+        bookUpdateEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        bookUpdateEncoder.source(Source.ORDERBOOK);
+
+        final BookUpdateEncoder.BidBookEncoder bids = bookUpdateEncoder.bidBookCount(bidSide.levelCount());
+        for(int i=0; i<bidSide.levelCount(); i++){
+            final int level = bidSide.levelAt(i);
+            bids.next().price(bidSide.levelPrice(level)).size(bidSide.levelQuantity(level));
+        }
+
+        final BookUpdateEncoder.AskBookEncoder asks = bookUpdateEncoder.askBookCount(askSide.levelCount());
+        for(int i=0; i<askSide.levelCount(); i++){
+            final int level = askSide.levelAt(i);
+            asks.next().price(askSide.levelPrice(level)).size(askSide.levelQuantity(level));
+        }
+
+        return buffer;
+    }
+
+    private void enter(){
+        levels.enter();
+        orders.enter();
+    }
+
+    private void exit(){
+        orders.exit();
+        levels.exit();
+    }
+}
@@ -0,0 +1,125 @@
+package codingblackfemales.orderbook.offheap;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed length records in one off-heap buffer, addressed by an int handle (the record's index), with freed records
+ * chained through their first four bytes and reused before the slab grows. Growing copies everything into a buffer
+ * twice the size and re-wraps the same {@link UnsafeBuffer}, so flyweights holding the buffer stay valid.
+ *
+ * Like the heap book's pool, frees made while the book is inside an operation ({@link #enter()} to {@link #exit()})
+ * are held back until the outermost one finishes, as a fill can re-enter the book while it is still reading a record
+ * it has just removed. Not thread safe.
+ */
+public class Slab {
+
+    public static final int NULL = -1;
+
+    private final int recordLength;
+    private final UnsafeBuffer buffer;
+
+    private int capacity;
+    private int limit = 0;
+    private int freeHead = NULL;
+    private int size = 0;
+
+    private int depth = 0;
+    private int[] pending = new int[16];
+    private int pendingCount = 0;
+
+    public Slab(final int recordLength, final int initialCapacity) {
+        if(recordLength < 4){
+            throw new IllegalArgumentException("Records must be at least 4 bytes, was: " + recordLength);
+        }
+
+        this.recordLength = recordLength;
+        this.capacity = Math.max(1, initialCapacity);
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity * recordLength));
+    }
+
+    public UnsafeBuffer buffer(){
+        return buffer;
+    }
+
+    public int recordLength(){
+        return recordLength;
+    }
+
+    public int offset(final int handle){
+        return handle * recordLength;
+    }
+
+    /**
+     * The number of records in use.
+     */
+    public int size(){
+        return size;
+    }
+
+    public int capacity(){
+        return capacity;
+    }
+
+    /**
+     * A zeroed record.
+     */
+    public int allocate(){
+        final int handle;
+
+        if(freeHead != NULL){
+            handle = freeHead;
+            freeHead = buffer.getInt(offset(handle));
+        }else{
+            if(limit == capacity){
+                grow();
+            }
+            handle = limit++;
+        }
+
+        buffer.setMemory(offset(handle), recordLength, (byte) 0);
+        size++;
+        return handle;
+    }
+
+    public void free(final int handle){
+        if(depth == 0){
+            release(handle);
+            return;
+        }
+
+        if(pendingCount == pending.length){
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = handle;
+    }
+
+    public void enter(){
+        depth++;
+    }
+
+    public void exit(){
+        if(--depth == 0){
+            for(int i=0; i<pendingCount; i++){
+                release(pending[i]);
+            }
+            pendingCount = 0;
+        }
+    }
+
+    private void release(final int handle){
+        buffer.putInt(offset(handle), freeHead);
+        freeHead = handle;
+        size--;
+    }
+
+    private void grow(){
+        final int newCapacity = capacity * 2;
+        final ByteBuffer grown = ByteBuffer.allocateDirect(newCapacity * recordLength);
+        buffer.getBytes(0, grown, 0, capacity * recordLength);
+        buffer.wrap(grown);
+        capacity = newCapacity;
+    }
+}
@@ -16,6 +16,18 @@ public class LimitOrderFlyweight extends DefaultOrderFlyweight {
         this.orderId = orderId;
     }
 
+    /**
+     * Re-point a pooled order at a new order.
+     */
+    public LimitOrderFlyweight set(Side side, long price, long quantity, long orderId) {
+        resetLinks();
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        this.orderId = orderId;
+        return this;
+    }
+
     public Side getSide() {
         return side;
     }
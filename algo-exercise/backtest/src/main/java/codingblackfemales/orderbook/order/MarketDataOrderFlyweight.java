@@ -14,6 +14,17 @@ public class MarketDataOrderFlyweight extends DefaultOrderFlyweight {
         this.quantity = quantity;
     }
 
+    /**
+     * Re-point a pooled order at a new price and quantity.
+     */
+    public MarketDataOrderFlyweight set(Side side, long price, long quantity) {
+        resetLinks();
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        return this;
+    }
+
     @Override
     public Side getSide() {
         return side;
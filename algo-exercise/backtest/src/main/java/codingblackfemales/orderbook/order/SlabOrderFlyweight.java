@@ -0,0 +1,118 @@
+package codingblackfemales.orderbook.order;
+
+import messages.order.Side;
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * A view over one order record in an off-heap slab, re-pointed with {@link #wrap(MutableDirectBuffer, int)} rather
+ * than allocated per order. Market data liquidity is an order with the market data flag set and no order id.
+ */
+public class SlabOrderFlyweight {
+
+    public static final int PRICE_OFFSET = 0;
+    public static final int QUANTITY_OFFSET = 8;
+    public static final int ORDER_ID_OFFSET = 16;
+    public static final int NEXT_OFFSET = 24;
+    public static final int PREVIOUS_OFFSET = 28;
+    public static final int LEVEL_OFFSET = 32;
+    public static final int SIDE_OFFSET = 36;
+    public static final int FLAGS_OFFSET = 37;
+    public static final int LENGTH = 40;
+
+    private static final byte MARKET_DATA_FLAG = 1;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+    private int handle = -1;
+
+    public SlabOrderFlyweight wrap(final MutableDirectBuffer buffer, final int handle){
+        this.buffer = buffer;
+        this.handle = handle;
+        this.offset = handle * LENGTH;
+        return this;
+    }
+
+    public int handle(){
+        return handle;
+    }
+
+    public long getPrice(){
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+
+    public SlabOrderFlyweight setPrice(final long price){
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        return this;
+    }
+
+    public long getQuantity(){
+        return buffer.getLong(offset + QUANTITY_OFFSET);
+    }
+
+    public SlabOrderFlyweight setQuantity(final long quantity){
+        buffer.putLong(offset + QUANTITY_OFFSET, quantity);
+        return this;
+    }
+
+    public long getOrderId(){
+        return buffer.getLong(offset + ORDER_ID_OFFSET);
+    }
+
+    public SlabOrderFlyweight setOrderId(final long orderId){
+        buffer.putLong(offset + ORDER_ID_OFFSET, orderId);
+        return this;
+    }
+
+    public int getNext(){
+        return buffer.getInt(offset + NEXT_OFFSET);
+    }
+
+    public SlabOrderFlyweight setNext(final int next){
+        buffer.putInt(offset + NEXT_OFFSET, next);
+        return this;
+    }
+
+    public int getPrevious(){
+        return buffer.getInt(offset + PREVIOUS_OFFSET);
+    }
+
+    public SlabOrderFlyweight setPrevious(final int previous){
+        buffer.putInt(offset + PREVIOUS_OFFSET, previous);
+        return this;
+    }
+
+    public int getLevel(){
+        return buffer.getInt(offset + LEVEL_OFFSET);
+    }
+
+    public SlabOrderFlyweight setLevel(final int level){
+        buffer.putInt(offset + LEVEL_OFFSET, level);
+        return this;
+    }
+
+    public Side getSide(){
+        return Side.get(buffer.getByte(offset + SIDE_OFFSET));
+    }
+
+    public SlabOrderFlyweight setSide(final Side side){
+        buffer.putByte(offset + SIDE_OFFSET, side.value());
+        return this;
+    }
+
+    public boolean isMarketData(){
+        return (buffer.getByte(offset + FLAGS_OFFSET) & MARKET_DATA_FLAG) != 0;
+    }
+
+    public SlabOrderFlyweight setMarketData(final boolean marketData){
+        buffer.putByte(offset + FLAGS_OFFSET, marketData ? MARKET_DATA_FLAG : 0);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        if(isMarketData()){
+            return "MktData(price=" + getPrice() + ",quantity=" + getQuantity() + ")";
+        }
+        return "Limit(side=" + getSide() + ",orderId=" + getOrderId() + ",price=" + getPrice() + ",quantity=" + getQuantity() + ")";
+    }
+}
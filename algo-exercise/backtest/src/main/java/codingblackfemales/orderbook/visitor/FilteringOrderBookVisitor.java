@@ -1,7 +1,17 @@
 package codingblackfemales.orderbook.visitor;
 
+import codingblackfemales.orderbook.OrderBookSide;
+
 public interface FilteringOrderBookVisitor extends OrderBookVisitor{
 
     public long getPrice();
 
+    /**
+     * We only need the level at our price.
+     */
+    @Override
+    default void walk(OrderBookSide side){
+        side.acceptAtPrice(this, getPrice());
+    }
+
 }
@@ -1,6 +1,7 @@
 package codingblackfemales.orderbook.visitor;
 
 import codingblackfemales.orderbook.OrderBookLevel;
+import codingblackfemales.orderbook.OrderBookPool;
 import codingblackfemales.orderbook.OrderBookSide;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.Order;
@@ -11,8 +12,14 @@ public class MutatingAddOrderVisitor implements OrderBookVisitor,FilteringOrderB
 
     private static final Logger logger = LoggerFactory.getLogger(MutatingAddOrderVisitor.class);
 
+    private final OrderBookPool pool;
+
     private DefaultOrderFlyweight orderToAdd;
 
+    public MutatingAddOrderVisitor(OrderBookPool pool) {
+        this.pool = pool;
+    }
+
     public Order getOrderToAdd() {
         return orderToAdd;
     }
@@ -44,17 +51,12 @@ public class MutatingAddOrderVisitor implements OrderBookVisitor,FilteringOrderB
 
     @Override
     public OrderBookLevel missingBookLevel(OrderBookLevel previous, OrderBookLevel next, long price) {
-        OrderBookLevel level = new OrderBookLevel();
-        level.setPrice(price);
-        return level;
+        return pool.level(price);
     }
 
     @Override
     public OrderBookLevel onNoFirstLevel() {
-        OrderBookLevel level = new OrderBookLevel();
-        level.setPrice(orderToAdd.getPrice());
-        level.setQuantity(0);
-        return level;
+        return pool.level(orderToAdd.getPrice());
     }
 
     @Override
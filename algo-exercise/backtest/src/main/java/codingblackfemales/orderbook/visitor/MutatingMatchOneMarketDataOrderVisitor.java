@@ -45,7 +45,7 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
                 long fillQuantity = order.getQuantity();
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
-                level.setFirstOrder(order.remove());
+                side.removeOrder(level, order);
                 if(order instanceof LimitOrderFlyweight){
                     logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
                     publishFill(fillQuantity, orderToMatch.getPrice(),(LimitOrderFlyweight) order);
@@ -57,6 +57,7 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
                 order.setQuantity(remainingQty);
+                side.levelChanged(order.getPrice());
                 if(order instanceof LimitOrderFlyweight){
                     logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
                     publishFill(fillQuantity, orderToMatch.getPrice(), (LimitOrderFlyweight) order);
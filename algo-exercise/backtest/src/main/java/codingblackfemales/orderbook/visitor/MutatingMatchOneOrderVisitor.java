@@ -44,10 +44,10 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
                 long fillQuantity = order.getQuantity();
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
-                level.setFirstOrder(order.remove());
+                side.removeOrder(level, order);
                 level.setQuantity(level.getQuantity() - fillQuantity);
                 if(level.getQuantity()==0){
-                    side.setFirstLevel(level.remove());
+                    side.removeLevel(level);
                 }
                 publishFill(fillQuantity, order.getPrice(), orderToMatch);
             //if we can only take a nibble...
@@ -58,8 +58,9 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
                 filledQuantity += fillQuantity;
                 order.setQuantity(remainingQty);
                 level.setQuantity(level.getQuantity() - fillQuantity);
+                side.levelChanged(level.getPrice());
                 if(level.getQuantity()==0){
-                    side.setFirstLevel(level.remove());
+                    side.removeLevel(level);
                 }
                 publishFill(fillQuantity, order.getPrice(), orderToMatch);
             }
@@ -0,0 +1,57 @@
+package codingblackfemales.orderbook.visitor;
+
+import codingblackfemales.orderbook.OrderBookLevel;
+import codingblackfemales.orderbook.OrderBookSide;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Removes the market data liquidity at one price, leaving any limit orders resting there, used to apply an
+ * incremental book update without clearing the rest of the side.
+ */
+public class MutatingRemoveMarketDataOrdersAtPriceVisitor implements OrderBookVisitor{
+
+    private static final Logger logger = LoggerFactory.getLogger(MutatingRemoveMarketDataOrdersAtPriceVisitor.class);
+
+    private long price;
+
+    public void setPrice(long price) {
+        this.price = price;
+    }
+
+    @Override
+    public void visitLevel(OrderBookSide side, OrderBookLevel level) {}
+
+    @Override
+    public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
+        if(level.getPrice() == price && order instanceof MarketDataOrderFlyweight){
+            side.removeOrder(level, order);
+            level.setQuantity(level.getQuantity() - order.getQuantity());
+            logger.debug("[ORDERBOOK] Removing market data order:" + order);
+            if(level.getQuantity() == 0){
+                logger.debug("[ORDERBOOK] Removing level:" + level.getPrice());
+                side.removeLevel(level);
+            }
+        }
+    }
+
+    @Override
+    public OrderBookLevel missingBookLevel(OrderBookLevel previous, OrderBookLevel next, long price) {
+        return null;
+    }
+
+    @Override
+    public OrderBookLevel onNoFirstLevel() {
+        return null;
+    }
+
+    @Override
+    public DefaultOrderFlyweight onNoFirstOrder() {
+        return null;
+    }
+
+    @Override
+    public void visitSide(OrderBookSide side) {}
+}
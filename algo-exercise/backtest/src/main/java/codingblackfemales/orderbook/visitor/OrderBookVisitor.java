@@ -13,4 +13,12 @@ public interface OrderBookVisitor {
     OrderBookLevel onNoFirstLevel();
     DefaultOrderFlyweight onNoFirstOrder();
 
+    /**
+     * Called by {@link OrderBookSide#accept} once the side has been visited, to walk the levels this visitor wants,
+     * by default all of them.
+     */
+    default void walk(OrderBookSide side){
+        side.acceptAllLevels(this);
+    }
+
 }
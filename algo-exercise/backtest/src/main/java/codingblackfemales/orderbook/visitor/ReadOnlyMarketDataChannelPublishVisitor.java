@@ -6,31 +6,42 @@ import codingblackfemales.orderbook.OrderBookLevel;
 import codingblackfemales.orderbook.OrderBookSide;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import messages.marketdata.*;
+import org.agrona.ExpandableDirectByteBuffer;
 import org.agrona.MutableDirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
-
+/**
+ * Encodes the whole book as a {@link BookUpdateEncoder} message, visit the bid side and then the ask side between
+ * {@link #start()} and {@link #end()}.
+ */
 public class ReadOnlyMarketDataChannelPublishVisitor implements OrderBookVisitor {
 
     private static final Logger logger = LoggerFactory.getLogger(ReadOnlyMarketDataChannelPublishVisitor.class);
 
+    public static final Venue VENUE = Venue.XLON;
+    public static final long INSTRUMENT_ID = 123L;
+
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private final BookUpdateEncoder encoder = new BookUpdateEncoder();
 
-    private ByteBuffer byteBuffer; //= ByteBuffer.allocateDirect(1024);
-    private UnsafeBuffer directBuffer; //= new UnsafeBuffer(byteBuffer);
+    private final MutableDirectBuffer ownBuffer = new ExpandableDirectByteBuffer(1024);
+    private MutableDirectBuffer directBuffer;
 
     public void start(){
-        byteBuffer = ByteBuffer.allocateDirect(1024);
-        directBuffer = new UnsafeBuffer(byteBuffer);
+        start(ownBuffer);
+    }
+
+    /**
+     * Encode into the given buffer rather than our own, which is overwritten by each {@link #start()}.
+     */
+    public void start(final MutableDirectBuffer buffer){
+        directBuffer = buffer;
 
         encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
         //set the fields to desired valus
-        encoder.venue(Venue.XLON);
-        encoder.instrumentId(123L);
+        encoder.venue(VENUE);
+        encoder.instrumentId(INSTRUMENT_ID);
         encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
         encoder.source(Source.ORDERBOOK);
     }
@@ -45,33 +56,26 @@ public class ReadOnlyMarketDataChannelPublishVisitor implements OrderBookVisitor
 
     @Override
     public void visitSide(OrderBookSide side) {
+        //an empty side still needs its (empty) group, or the decoder reads the next group in its place. The count and
+        //the levels both come from the side's price index, so they always agree
         if(side instanceof BidBookSide){
-            if(side.getFirstLevel() == null){
-                return;
-            }
-
-            final var size = side.getFirstLevel().size();
+            final var size = side.getLevelCount();
             logger.debug("Bid Side Size: " + size);
             var bidBookEncoder = encoder.bidBookCount(size);
-            OrderBookLevel level = side.getFirstLevel();
             for(int i=0; i< size; i++){
+                final OrderBookLevel level = side.getLevelFromTop(i);
                 logger.debug("Adding Mkt Data Msg BID: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
                 bidBookEncoder.next().size(level.getQuantity()).price(level.getPrice()) ;
-                level = level.next();
             }
         }else if(side instanceof AskBookSide){
-            if(side.getFirstLevel() == null){
-                return;
-            }
-            final var size = side.getFirstLevel().size();
+            final var size = side.getLevelCount();
             logger.debug("Ask Side Size: " + size);
             var askBookEncoder = encoder.askBookCount(size);
-            OrderBookLevel level = side.getFirstLevel();
 
             for(int i=0; i< size; i++){
+                final OrderBookLevel level = side.getLevelFromTop(i);
                 logger.debug("Adding Mkt Data Msg ASK: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
                 askBookEncoder.next().size(level.getQuantity()).price(level.getPrice()) ;
-                level = level.next();
             }
         }
     }
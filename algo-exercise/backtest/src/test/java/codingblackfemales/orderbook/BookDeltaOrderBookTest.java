@@ -0,0 +1,41 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.order.Side;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BookDeltaOrderBookTest {
+
+    @Test
+    public void testDeltaOnlyTouchesChangedLevelsAndKeepsOurOrders(){
+
+        final MarketDataChannel mktDataChannel = Mockito.mock(MarketDataChannel.class);
+        final OrderChannel orderChannel = Mockito.mock(OrderChannel.class);
+
+        final OrderBook book = new OrderBook(mktDataChannel, orderChannel);
+
+        book.onMessage(OrderBookTestMessages.tick());
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 500L, 1));
+
+        book.onMessage(OrderBookTestMessages.delta());
+
+        final OrderBookLevel firstBid = book.getBidBookSide().getFirstLevel();
+        assertEquals(100L, firstBid.getPrice());
+        assertEquals(98L, firstBid.next().getPrice());
+        assertEquals(50L, firstBid.next().getQuantity());
+        assertEquals(96L, firstBid.next().next().getPrice());
+        assertEquals(750L, firstBid.next().next().getQuantity());
+        assertEquals(93L, firstBid.next().next().next().getPrice());
+
+        final OrderBookLevel firstAsk = book.getAskBookSide().getFirstLevel();
+        assertEquals(101L, firstAsk.getPrice());
+        assertEquals(120L, firstAsk.next().getPrice());
+        assertNull(firstAsk.next().next());
+    }
+}
@@ -96,6 +96,67 @@ public class CancelOrderBookVisitorTest {
         Assert.assertEquals( 5_000L, book.getAskBookSide().getFirstLevel().next().next().getQuantity());
     }
 
+    @Test
+    public void testCancelOfOnlyOrderRemovesItsLevel(){
+
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick1()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 97L, 500L, 1));
+
+        Assert.assertEquals( 97L, book.getBidBookSide().getFirstLevel().next().getPrice());
+        Assert.assertNotNull(book.getBidBookSide().getLimitOrder(1));
+
+        book.onCancelOrder(1);
 
+        Assert.assertNull(book.getBidBookSide().getLimitOrder(1));
+        Assert.assertNull(book.getBidBookSide().getLevel(97L));
+        Assert.assertEquals( 96L, book.getBidBookSide().getFirstLevel().next().getPrice());
+        Assert.assertEquals( 3, book.getBidBookSide().getLevelCount());
+    }
+
+    @Test
+    public void testCancelOfDeepLevelKeepsBestLevelAfterRepeatedNewBests(){
+
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+        //each order is a new best bid, so each level goes in front of the last
+        for(int i=0; i<4; i++){
+            book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 100L + i, 10L, i + 1));
+        }
+
+        book.onCancelOrder(1);
 
+        final OrderBookSide bids = book.getBidBookSide();
+        Assert.assertEquals( 3, bids.getLevelCount());
+        Assert.assertEquals( 103L, bids.getFirstLevel().getPrice());
+        Assert.assertEquals( 102L, bids.getFirstLevel().next().getPrice());
+        Assert.assertEquals( 101L, bids.getFirstLevel().next().next().getPrice());
+        Assert.assertNull(bids.getFirstLevel().next().next().next());
+        Assert.assertSame(bids.getFirstLevel(), bids.getLevel(101L).first());
+    }
+
+    @Test
+    public void testCancelOfFilledOrderIsIgnored(){
+
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick1()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 100L, 50L, 1));
+
+        Assert.assertEquals( 150L, book.getBidBookSide().getFirstLevel().getQuantity());
+
+        //take out the whole of the top level, our order included
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, 150L, 2));
+
+        Assert.assertNull(book.getBidBookSide().getLimitOrder(1));
+        Assert.assertEquals( 96L, book.getBidBookSide().getFirstLevel().getPrice());
+
+        book.onCancelOrder(1);
+
+        Assert.assertEquals( 96L, book.getBidBookSide().getFirstLevel().getPrice());
+        Assert.assertEquals( 200L, book.getBidBookSide().getFirstLevel().getQuantity());
+    }
 }
@@ -0,0 +1,109 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class OrderBookPoolTest {
+
+    @Test
+    public void steadyStateTicksAndOrdersDoNotAllocate(){
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+        final OrderBookPool pool = book.getPool();
+        final UnsafeBuffer tick = OrderBookTestMessages.tick();
+
+        for(int i=0; i<3; i++){
+            book.onBookUpdate(wrapBufferInDecoder(tick));
+            book.onLimitOrder(pool.limitOrder(Side.BUY, 97L, 50L, i));
+            book.onCancelOrder(i);
+        }
+
+        final long allocated = pool.getAllocated();
+
+        for(int i=3; i<1000; i++){
+            book.onBookUpdate(wrapBufferInDecoder(tick));
+            book.onLimitOrder(pool.limitOrder(Side.BUY, 97L, 50L, i));
+            book.onCancelOrder(i);
+        }
+
+        assertEquals(allocated, pool.getAllocated());
+    }
+
+    @Test
+    public void releasedInsideAnOperationIsOnlyReusedOnceItHasFinished(){
+        final OrderBookPool pool = new OrderBookPool();
+        final LimitOrderFlyweight order = pool.limitOrder(Side.BUY, 100L, 10L, 1);
+
+        pool.enter();
+        pool.enter();
+        pool.release(order);
+        pool.exit();
+
+        assertNotSame(order, pool.limitOrder(Side.BUY, 100L, 10L, 2));
+
+        pool.exit();
+
+        final LimitOrderFlyweight reused = pool.limitOrder(Side.SELL, 101L, 20L, 3);
+        assertSame(order, reused);
+        assertEquals(3, reused.getOrderId());
+        assertEquals(Side.SELL, reused.getSide());
+        assertEquals(1, reused.size());
+    }
+
+    @Test
+    public void levelsAreRecycledWhenRemoved(){
+        final BidBookSide side = new BidBookSide();
+        final OrderBookPool pool = side.getPool();
+
+        side.addLimitOrder(pool.limitOrder(Side.BUY, 99L, 10L, 1));
+        final OrderBookLevel level = side.getFirstLevel();
+
+        side.cancelLimitOrder(1);
+        side.addLimitOrder(pool.limitOrder(Side.BUY, 98L, 20L, 2));
+
+        assertSame(level, side.getFirstLevel());
+        assertEquals(98L, level.getPrice());
+        assertEquals(20L, level.getQuantity());
+        assertEquals(2, pool.getAllocated());
+    }
+
+    @Test
+    public void levelReusedFromTheMiddleOfOneListIsNotReachableFromIt(){
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+        final OrderBookPool pool = book.getPool();
+
+        //each bid is a new best, so each level goes in front of the last
+        book.onLimitOrder(pool.limitOrder(Side.BUY, 100L, 10L, 1));
+        book.onLimitOrder(pool.limitOrder(Side.BUY, 101L, 10L, 2));
+        book.onLimitOrder(pool.limitOrder(Side.BUY, 102L, 10L, 3));
+
+        final OrderBookLevel middle = book.getBidBookSide().getLevel(101L);
+
+        book.onCancelOrder(2);
+        book.onLimitOrder(pool.limitOrder(Side.SELL, 200L, 10L, 4));
+
+        assertSame(middle, book.getAskBookSide().getLevel(200L));
+
+        book.onCancelOrder(1);
+
+        final OrderBookSide bids = book.getBidBookSide();
+        assertEquals(1, bids.getLevelCount());
+        assertEquals(102L, bids.getFirstLevel().getPrice());
+        assertNull(bids.getFirstLevel().next());
+        assertSame(bids.getFirstLevel(), bids.getFirstLevel().first());
+
+        assertSame(middle, book.getAskBookSide().getFirstLevel());
+        assertNull(middle.next());
+        assertSame(middle, middle.first());
+    }
+}
@@ -0,0 +1,111 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+public class OrderBookPublishTest {
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final BookDeltaDecoder deltaDecoder = new BookDeltaDecoder();
+
+    //the book reuses its buffer, so note what was in each message as it is published
+    private final List<String> published = new ArrayList<>();
+
+    private OrderBook book;
+
+    private String describe(final DirectBuffer buffer){
+        headerDecoder.wrap(buffer, 0);
+
+        if(headerDecoder.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+            return "book";
+        }
+
+        deltaDecoder.wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+        final StringBuilder builder = new StringBuilder("delta");
+        for(BookDeltaDecoder.LevelsDecoder level : deltaDecoder.levels()){
+            builder.append(' ').append(level.side()).append(' ').append(level.action())
+                    .append(' ').append(level.size()).append('@').append(level.price());
+        }
+        return builder.toString();
+    }
+
+    @Before
+    public void setUp(){
+        final MarketDataChannel channel = Mockito.mock(MarketDataChannel.class);
+        doAnswer(invocation -> published.add(describe(invocation.getArgument(0)))).when(channel).publish(any());
+
+        book = new OrderBook(channel, Mockito.mock(OrderChannel.class));
+        book.onBookUpdate(wrapBufferInDecoder(OrderBookTestMessages.tick()));
+    }
+
+    @Test
+    public void testWholeBookAfterMarketDataThenOnlyChangedLevels(){
+        book.onLimitOrder(book.getPool().limitOrder(Side.BUY, 96L, 50L, 1));
+        book.onLimitOrder(book.getPool().limitOrder(Side.SELL, 110L, 20L, 2));
+        book.onCancelOrder(1);
+
+        assertEquals(List.of("book", "delta ASK MODIFY 20@110", "delta BID MODIFY 200@96"), published);
+    }
+
+    @Test
+    public void testFilledLevelIsSentAsADelete(){
+        book.onLimitOrder(book.getPool().limitOrder(Side.BUY, 96L, 50L, 1));
+        book.onLimitOrder(book.getPool().limitOrder(Side.BUY, 101L, 101L, 2));
+
+        assertEquals(List.of("book", "delta ASK DELETE 0@101"), published);
+    }
+
+    @Test
+    public void testEmptyDeltaIsPublishedWhenNothingChanged(){
+        book.onLimitOrder(book.getPool().limitOrder(Side.BUY, 96L, 50L, 1));
+        book.onCancelOrder(99);
+
+        assertEquals(List.of("book", "delta"), published);
+    }
+
+    @Test
+    public void testWholeBookAgainAfterMoreMarketData(){
+        book.onLimitOrder(book.getPool().limitOrder(Side.BUY, 96L, 50L, 1));
+        book.onBookUpdate(wrapBufferInDecoder(OrderBookTestMessages.tick()));
+        book.onCancelOrder(1);
+
+        assertEquals(List.of("book", "book"), published);
+    }
+
+    @Test
+    public void testWholeBookListsEveryLevelBestFirst(){
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+        //each bid is a new best, then the deepest level is emptied
+        for(int i=0; i<4; i++){
+            book.onLimitOrder(book.getPool().limitOrder(Side.BUY, 100L + i, 10L + i, i + 1));
+        }
+        book.onCancelOrder(1);
+
+        final DirectBuffer buffer = book.getBookUpdateMessage();
+        headerDecoder.wrap(buffer, 0);
+        final BookUpdateDecoder decoder = new BookUpdateDecoder()
+                .wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+
+        final StringBuilder bids = new StringBuilder();
+        for(BookUpdateDecoder.BidBookDecoder bid : decoder.bidBook()){
+            bids.append(bid.size()).append('@').append(bid.price()).append(' ');
+        }
+
+        assertEquals("13@103 12@102 11@101 ", bids.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package codingblackfemales.orderbook;
+
+import messages.marketdata.BookDeltaEncoder;
+import messages.marketdata.BookSide;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.UpdateAction;
+import messages.marketdata.Venue;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The market data the order book tests feed in, encoded in one place so the heap and off-heap book tests see the same
+ * book and follow the schema together.
+ */
+public final class OrderBookTestMessages {
+
+    private OrderBookTestMessages() {
+    }
+
+    /**
+     * A full book for XLON/123, bids 100@100, 200@96, 300@93 and asks 101@101, 200@115, 5000@120.
+     */
+    public static UnsafeBuffer tick(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(3)
+                .next().price(100L).size(100L)
+                .next().price(96L).size(200L)
+                .next().price(93L).size(300L);
+
+        encoder.askBookCount(3)
+                .next().price(101L).size(101L)
+                .next().price(115L).size(200L)
+                .next().price(120L).size(5000L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return buffer;
+    }
+
+    /**
+     * A delta on the {@link #tick()} book, the bid at 96 goes to 250, a bid of 50 is added at 98 and the ask at 115 is
+     * deleted.
+     */
+    public static UnsafeBuffer delta(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookDeltaEncoder encoder = new BookDeltaEncoder();
+
+        encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.levelsCount(3)
+                .next().side(BookSide.BID).action(UpdateAction.MODIFY).price(96L).size(250L)
+                .next().side(BookSide.BID).action(UpdateAction.ADD).price(98L).size(50L)
+                .next().side(BookSide.ASK).action(UpdateAction.DELETE).price(115L).size(0L);
+
+        return buffer;
+    }
+}
@@ -0,0 +1,89 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import messages.order.Side;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PriceLevelIndexTest {
+
+    private static List<Long> pricesFromTop(final OrderBookSide side){
+        final List<Long> prices = new ArrayList<>();
+        for(OrderBookLevel level = side.getFirstLevel(); level != null; level = level.next()){
+            prices.add(level.getPrice());
+        }
+        return prices;
+    }
+
+    @Test
+    public void levelsAreLinkedInPriceOrderWhateverOrderTheyArrive(){
+        final BidBookSide bids = new BidBookSide();
+        final AskBookSide asks = new AskBookSide();
+        final List<Long> prices = new ArrayList<>();
+
+        final Random random = new Random(42);
+        while(prices.size() < 50){
+            final long price = 1000 + random.nextInt(500);
+            if(!prices.contains(price)){
+                prices.add(price);
+                bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, price, 100));
+                asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, price, 100));
+            }
+        }
+
+        Collections.sort(prices);
+        assertEquals(prices, pricesFromTop(asks));
+
+        Collections.reverse(prices);
+        assertEquals(prices, pricesFromTop(bids));
+
+        assertEquals(50, bids.getLevelCount());
+        assertEquals((long) prices.get(10), bids.getLevel(prices.get(10)).getPrice());
+        assertNull(bids.getLevel(999));
+    }
+
+    @Test
+    public void ordersAtAnExistingPriceJoinItsLevel(){
+        final AskBookSide asks = new AskBookSide();
+        asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 101, 100));
+        asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 103, 100));
+
+        final OrderBookLevel level = asks.getLevel(103);
+        asks.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 103, 50, 1));
+
+        assertSame(level, asks.getLevel(103));
+        assertEquals(150, level.getQuantity());
+        assertEquals(2, asks.getLevelCount());
+    }
+
+    @Test
+    public void removedLevelsLeaveTheIndex(){
+        final BidBookSide bids = new BidBookSide();
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 98, 100));
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 99, 100));
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 97, 100));
+
+        bids.removeMarketDataOrdersAt(98);
+
+        assertNull(bids.getLevel(98));
+        assertEquals(List.of(99L, 97L), pricesFromTop(bids));
+
+        //and a new level at the price goes back in the right place
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 98, 200));
+        assertEquals(List.of(99L, 98L, 97L), pricesFromTop(bids));
+        assertEquals(200, bids.getLevel(98).getQuantity());
+
+        bids.removeMarketDataOrders();
+        assertNull(bids.getFirstLevel());
+        assertEquals(0, bids.getLevelCount());
+    }
+}
@@ -0,0 +1,207 @@
+package codingblackfemales.orderbook.offheap;
+
+import codingblackfemales.orderbook.OrderBookTestMessages;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class OffHeapOrderBookTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
+
+    private final MarketDataChannel marketDataChannel = Mockito.mock(MarketDataChannel.class);
+    private final OrderChannel orderChannel = Mockito.mock(OrderChannel.class);
+
+    private static void assertLevel(final OffHeapBookSide side, final int i, final long price, final long quantity){
+        final int level = side.levelAt(i);
+        assertEquals(price, side.levelPrice(level));
+        assertEquals(quantity, side.levelQuantity(level));
+    }
+
+    @Test
+    public void testBookUpdateFillsBothSidesBestFirst(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L);
+
+        book.onMessage(OrderBookTestMessages.tick());
+
+        assertEquals(3, book.getBidSide().levelCount());
+        assertLevel(book.getBidSide(), 0, 100L, 100L);
+        assertLevel(book.getBidSide(), 2, 93L, 300L);
+
+        assertEquals(3, book.getAskSide().levelCount());
+        assertLevel(book.getAskSide(), 0, 101L, 101L);
+        assertLevel(book.getAskSide(), 2, 120L, 5000L);
+    }
+
+    @Test
+    public void testPassiveOrderRestsBehindMarketDataAndCanBeCancelled(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L);
+
+        book.onMessage(OrderBookTestMessages.tick());
+        book.onLimitOrder(Side.BUY, 96L, 500L, 1);
+
+        final OffHeapBookSide bids = book.getBidSide();
+        assertLevel(bids, 1, 96L, 700L);
+        assertEquals(2, bids.levelOrderCount(bids.levelAt(1)));
+
+        //a new tick replaces the market data but keeps our order
+        book.onMessage(OrderBookTestMessages.tick());
+        assertLevel(bids, 1, 96L, 700L);
+
+        book.onCancelOrder(1);
+        assertLevel(bids, 1, 96L, 200L);
+        assertEquals(1, bids.levelOrderCount(bids.levelAt(1)));
+        verify(marketDataChannel, Mockito.times(2)).publish(Mockito.any());
+    }
+
+    @Test
+    public void testAggressiveOrderWalksTheBookAndIsNotLeftResting(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L);
+
+        book.onMessage(OrderBookTestMessages.tick());
+        book.onLimitOrder(Side.BUY, 115L, 150L, 1);
+
+        verify(orderChannel).publishFill(101L, 101L, 1L);
+        verify(orderChannel).publishFill(49L, 115L, 1L);
+
+        assertEquals(2, book.getAskSide().levelCount());
+        assertLevel(book.getAskSide(), 0, 115L, 151L);
+        assertEquals(3, book.getBidSide().levelCount());
+        assertFalse(book.canMatch(Side.BUY, 114L));
+    }
+
+    @Test
+    public void testMarketDataTradingThroughOurOrderFillsIt(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L);
+
+        book.onMessage(OrderBookTestMessages.tick());
+        book.onLimitOrder(Side.SELL, 103L, 40L, 7);
+        assertTrue(book.canMatch(Side.BUY, 103L));
+
+        //the next tick bids 105, which trades with our offer at 103
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        bookUpdateEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        bookUpdateEncoder.venue(Venue.XLON);
+        bookUpdateEncoder.instrumentId(123L);
+        bookUpdateEncoder.source(Source.STREAM);
+        bookUpdateEncoder.bidBookCount(1).next().price(105L).size(30L);
+        bookUpdateEncoder.askBookCount(1).next().price(110L).size(100L);
+
+        book.onMessage(buffer);
+
+        verify(orderChannel).publishFill(30L, 105L, 7L);
+        assertEquals(0, book.getBidSide().levelCount());
+        assertLevel(book.getAskSide(), 0, 103L, 10L);
+    }
+
+    @Test
+    public void testDeltaOnlyTouchesChangedLevelsAndKeepsOurOrders(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L);
+
+        book.onMessage(OrderBookTestMessages.tick());
+        book.onLimitOrder(Side.BUY, 96L, 500L, 1);
+        book.onMessage(OrderBookTestMessages.delta());
+
+        assertLevel(book.getBidSide(), 0, 100L, 100L);
+        assertLevel(book.getBidSide(), 1, 98L, 50L);
+        assertLevel(book.getBidSide(), 2, 96L, 750L);
+        assertEquals(2, book.getAskSide().levelCount());
+        assertLevel(book.getAskSide(), 1, 120L, 5000L);
+    }
+
+    @Test
+    public void testCancellingAnUnknownOrderLeavesTheBookAlone(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L);
+
+        book.onMessage(OrderBookTestMessages.tick());
+        book.onCancelOrder(99);
+
+        assertEquals(3, book.getBidSide().levelCount());
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testEncodedBookMatchesTheSides(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L);
+
+        book.onMessage(OrderBookTestMessages.tick());
+        book.onLimitOrder(Side.SELL, 102L, 10L, 1);
+
+        final ExpandableDirectByteBuffer buffer = new ExpandableDirectByteBuffer(64);
+        book.encodeBook(buffer);
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(buffer, 0);
+        final BookUpdateDecoder decoder = new BookUpdateDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+
+        assertEquals(Source.ORDERBOOK, decoder.source());
+        assertEquals(123L, decoder.instrumentId());
+
+        final BookUpdateDecoder.BidBookDecoder bids = decoder.bidBook();
+        assertEquals(3, bids.count());
+        assertEquals(100L, bids.next().price());
+        //groups have to be read in order
+        while(bids.hasNext()){
+            bids.next();
+        }
+
+        final BookUpdateDecoder.AskBookDecoder asks = decoder.askBook();
+        assertEquals(4, asks.count());
+        asks.next();
+        assertEquals(102L, asks.next().price());
+        assertEquals(10L, asks.size());
+    }
+
+    @Test
+    public void testBookIsEncodedForItsOwnInstrumentBeforeAnyMarketData(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XPAR, 456L);
+
+        final ExpandableDirectByteBuffer buffer = new ExpandableDirectByteBuffer(64);
+        book.encodeBook(buffer);
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(buffer, 0);
+        final BookUpdateDecoder decoder = new BookUpdateDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+
+        assertEquals(Venue.XPAR, decoder.venue());
+        assertEquals(456L, decoder.instrumentId());
+    }
+
+    @Test
+    public void testSteadyStateDoesNotGrowTheSlabs(){
+        final OffHeapOrderBook book = new OffHeapOrderBook(marketDataChannel, orderChannel, Venue.XLON, 123L, 8);
+        final UnsafeBuffer tick = OrderBookTestMessages.tick();
+
+        //a tick frees the old market data only once it has added the new, so the slabs grow to hold both
+        for(int i=0; i<3; i++){
+            book.onMessage(tick);
+            book.onLimitOrder(Side.BUY, 97L, 50L, i);
+            book.onCancelOrder(i);
+        }
+
+        final int capacity = book.getOrders().capacity();
+
+        for(int i=3; i<1000; i++){
+            book.onMessage(tick);
+            book.onLimitOrder(Side.BUY, 97L, 50L, i);
+            book.onCancelOrder(i);
+        }
+
+        assertEquals(capacity, book.getOrders().capacity());
+        assertEquals(6, book.getOrders().size());
+        assertEquals(6, book.getLevels().size());
+    }
+}
@@ -0,0 +1,74 @@
+package codingblackfemales.orderbook.offheap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class SlabTest {
+
+    @Test
+    public void freedRecordsAreReusedBeforeTheSlabGrows(){
+        final Slab slab = new Slab(LevelFlyweight.LENGTH, 2);
+
+        final int first = slab.allocate();
+        final int second = slab.allocate();
+        slab.free(first);
+
+        assertEquals(first, slab.allocate());
+        assertEquals(2, slab.capacity());
+        assertEquals(2, slab.size());
+
+        slab.free(second);
+        assertEquals(1, slab.size());
+    }
+
+    @Test
+    public void growingKeepsTheRecordsAndTheFlyweightsBuffer(){
+        final Slab slab = new Slab(LevelFlyweight.LENGTH, 1);
+        final LevelFlyweight level = new LevelFlyweight();
+
+        final int first = slab.allocate();
+        level.wrap(slab.buffer(), first).setPrice(100L).setQuantity(50L);
+
+        for(int i=0; i<20; i++){
+            level.wrap(slab.buffer(), slab.allocate()).setPrice(i);
+        }
+
+        assertEquals(32, slab.capacity());
+        level.wrap(slab.buffer(), first);
+        assertEquals(100L, level.getPrice());
+        assertEquals(50L, level.getQuantity());
+    }
+
+    @Test
+    public void allocatedRecordsAreZeroed(){
+        final Slab slab = new Slab(LevelFlyweight.LENGTH, 4);
+        final LevelFlyweight level = new LevelFlyweight();
+
+        final int handle = slab.allocate();
+        level.wrap(slab.buffer(), handle).setPrice(100L).setQuantity(50L);
+        slab.free(handle);
+
+        level.wrap(slab.buffer(), slab.allocate());
+        assertEquals(0L, level.getPrice());
+        assertEquals(0L, level.getQuantity());
+    }
+
+    @Test
+    public void freedInsideAnOperationIsOnlyReusedOnceItHasFinished(){
+        final Slab slab = new Slab(LevelFlyweight.LENGTH, 4);
+        final int handle = slab.allocate();
+
+        slab.enter();
+        slab.enter();
+        slab.free(handle);
+        slab.exit();
+
+        assertNotEquals(handle, slab.allocate());
+
+        slab.exit();
+
+        assertEquals(handle, slab.allocate());
+    }
+}
@@ -0,0 +1,163 @@
+package codingblackfemales.collection.extrusive;
+
+import java.util.Arrays;
+
+/**
+ * A long to int map in two primitive arrays, resolving collisions by linear probing like
+ * {@link LongToObjOpenAddressingMap}, for mapping ids to int handles without boxing either side.
+ *
+ * The missing value is returned by get and remove when there is no mapping, and can't be stored, a slot holding it
+ * marks an empty bucket. Not thread safe.
+ */
+public class LongToIntOpenAddressingMap {
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 16;
+    public static final float DEFAULT_LOAD_FACTOR = 0.65f;
+
+    private final float loadFactor;
+    private final int missingValue;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size = 0;
+
+    public LongToIntOpenAddressingMap(final int missingValue) {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, missingValue);
+    }
+
+    public LongToIntOpenAddressingMap(final int initialCapacity, final float loadFactor, final int missingValue) {
+        if(loadFactor <= 0 || loadFactor >= 1){
+            throw new IllegalArgumentException("loadFactor must be between 0 and 1, was: " + loadFactor);
+        }
+
+        this.loadFactor = loadFactor;
+        this.missingValue = missingValue;
+        allocate(Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1);
+    }
+
+    public int missingValue(){
+        return missingValue;
+    }
+
+    public int get(final long key){
+        int index = hash(key);
+
+        int value;
+        while((value = values[index]) != missingValue){
+            if(keys[index] == key){
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return missingValue;
+    }
+
+    public void put(final long key, final int value){
+        if(value == missingValue){
+            throw new IllegalArgumentException("Can't store the missing value, key: " + key);
+        }
+
+        int index = hash(key);
+
+        while(values[index] != missingValue){
+            if(keys[index] == key){
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+
+        if(++size > resizeThreshold){
+            resize(values.length * 2);
+        }
+    }
+
+    public int remove(final long key){
+        int index = hash(key);
+
+        int value;
+        while((value = values[index]) != missingValue){
+            if(keys[index] == key){
+                values[index] = missingValue;
+                size--;
+                compactChain(index);
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return missingValue;
+    }
+
+    public boolean containsKey(final long key){
+        return get(key) != missingValue;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * The same backward shift delete as {@link LongToObjOpenAddressingMap}, so there are no tombstones.
+     */
+    private void compactChain(int deleteIndex){
+        int index = deleteIndex;
+
+        while(true){
+            index = (index + 1) & mask;
+            final int value = values[index];
+            if(value == missingValue){
+                return;
+            }
+
+            final int home = hash(keys[index]);
+
+            if((index < home && (home <= deleteIndex || deleteIndex <= index)) ||
+               (home <= deleteIndex && deleteIndex <= index)){
+                keys[deleteIndex] = keys[index];
+                values[deleteIndex] = value;
+                values[index] = missingValue;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    private void resize(final int newCapacity){
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+
+        allocate(newCapacity);
+
+        for(int i=0; i<oldValues.length; i++){
+            final int value = oldValues[i];
+            if(value != missingValue){
+                int index = hash(oldKeys[i]);
+                while(values[index] != missingValue){
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    private void allocate(final int capacity){
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, missingValue);
+        mask = capacity - 1;
+        resizeThreshold = (int)(capacity * loadFactor);
+    }
+
+    private int hash(final long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) h & mask;
+    }
+}
@@ -1,4 +1,11 @@
 package codingblackfemales.collection.extrusive;
 
-public interface LongToObjMap {
+public interface LongToObjMap<TYPEOF> {
+    TYPEOF get(long l);
+    void put(long l, TYPEOF obj);
+    TYPEOF getOrDefault(long l, TYPEOF obj);
+    TYPEOF remove(long l);
+    boolean containsKey(long l);
+    int size();
+    void forEach(LongObjConsumer<TYPEOF> consumer);
 }
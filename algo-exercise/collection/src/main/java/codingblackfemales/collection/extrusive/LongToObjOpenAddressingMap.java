@@ -0,0 +1,194 @@
+package codingblackfemales.collection.extrusive;
+
+/**
+ * A long keyed map which stores its keys in a primitive array and resolves collisions by linear probing, so there is
+ * no boxing of keys and no entry object per mapping. Nothing is allocated on get, or on put once the map has grown
+ * to its working size.
+ *
+ * Null values are not allowed, a null value slot marks an empty bucket. Not thread safe.
+ *
+ * @param <TYPEOF>
+ */
+public class LongToObjOpenAddressingMap<TYPEOF> implements LongToObjMap<TYPEOF> {
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 16;
+    public static final float DEFAULT_LOAD_FACTOR = 0.65f;
+
+    private final float loadFactor;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size = 0;
+
+    public LongToObjOpenAddressingMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongToObjOpenAddressingMap(final int initialCapacity, final float loadFactor) {
+        if(loadFactor <= 0 || loadFactor >= 1){
+            throw new IllegalArgumentException("loadFactor must be between 0 and 1, was: " + loadFactor);
+        }
+
+        this.loadFactor = loadFactor;
+        allocate(powerOfTwoAtLeast(Math.max(2, initialCapacity)));
+    }
+
+    //safe, values only ever holds what put was given, which is a TYPEOF
+    @SuppressWarnings("unchecked")
+    @Override
+    public TYPEOF get(final long l) {
+        int index = hash(l);
+
+        Object value;
+        while((value = values[index]) != null){
+            if(keys[index] == l){
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    @Override
+    public TYPEOF getOrDefault(final long l, final TYPEOF obj) {
+        final TYPEOF value = get(l);
+        return value != null ? value : obj;
+    }
+
+    @Override
+    public void put(final long l, final TYPEOF obj) {
+        if(obj == null){
+            throw new IllegalArgumentException("Null values are not supported, key: " + l);
+        }
+
+        int index = hash(l);
+
+        while(values[index] != null){
+            if(keys[index] == l){
+                values[index] = obj;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = l;
+        values[index] = obj;
+
+        if(++size > resizeThreshold){
+            resize(values.length * 2);
+        }
+    }
+
+    //safe for the same reason as get
+    @SuppressWarnings("unchecked")
+    @Override
+    public TYPEOF remove(final long l) {
+        int index = hash(l);
+
+        Object value;
+        while((value = values[index]) != null){
+            if(keys[index] == l){
+                values[index] = null;
+                size--;
+                compactChain(index);
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(final long l) {
+        return get(l) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    //safe for the same reason as get
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(final LongObjConsumer<TYPEOF> consumer) {
+        for(int i=0; i<values.length; i++){
+            final Object value = values[i];
+            if(value != null){
+                consumer.accept(keys[i], (TYPEOF) value);
+            }
+        }
+    }
+
+    public int capacity(){
+        return values.length;
+    }
+
+    /**
+     * After a removal, shuffle back any entries further along the probe chain which would otherwise no longer be
+     * reachable from their home bucket, so we never need tombstones.
+     */
+    private void compactChain(int deleteIndex){
+        int index = deleteIndex;
+
+        while(true){
+            index = (index + 1) & mask;
+            final Object value = values[index];
+            if(value == null){
+                return;
+            }
+
+            final int home = hash(keys[index]);
+
+            //move it if its home bucket is not cyclically between the hole and where it sits now
+            if((index < home && (home <= deleteIndex || deleteIndex <= index)) ||
+               (home <= deleteIndex && deleteIndex <= index)){
+                keys[deleteIndex] = keys[index];
+                values[deleteIndex] = value;
+                values[index] = null;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    private void resize(final int newCapacity){
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+
+        allocate(newCapacity);
+
+        for(int i=0; i<oldValues.length; i++){
+            final Object value = oldValues[i];
+            if(value != null){
+                int index = hash(oldKeys[i]);
+                while(values[index] != null){
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    private void allocate(final int capacity){
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int)(capacity * loadFactor);
+    }
+
+    private int hash(final long key){
+        //spread the bits, instrument and order ids are often sequential
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) h & mask;
+    }
+
+    private static int powerOfTwoAtLeast(final int value){
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -19,6 +19,15 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
     protected int size = 0;
 
     protected IntrusiveLinkedListNode() {
+        resetLinks();
+    }
+
+    /**
+     * Clear the links of a node which has been removed, so it can be reused as a new list of one.
+     */
+    //safe, TYPEOF is the subclass's own type, so this is always a TYPEOF
+    @SuppressWarnings("unchecked")
+    protected final void resetLinks() {
         this.first = (TYPEOF) this;
         this.last = (TYPEOF) this;
         this.previous = null;
@@ -69,13 +78,21 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
     }
 
 
+    /**
+     * Put a node in front of the current head, self, pointing every node at it as the new first.
+     */
     public void insertFirst(TYPEOF self, TYPEOF level) {
+        final int newSize = size() + 1;
+        final TYPEOF last = last();
+
         level.next = self;
-        this.previous = level;
+        level.previous = null;
+        self.previous = level;
 
-        setFirst(level);
-        level.last = this.last;
-        setSize(size()+1);
+        //every node must point straight at the head, a node left pointing at the old head can't find the new one
+        resetFirst(level);
+        level.last = last;
+        setSize(level, newSize);
     }
 
     public void insertAfter(TYPEOF self, TYPEOF current, TYPEOF next) {
@@ -83,18 +100,11 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
         current.previous = self;
         current.next = next;
         next.previous = current;
+        //share the list's first, or removing the node would think it was the head
+        current.first = self.first;
         setSize(size()+1);
     }
 
-    private void setFirst(TYPEOF first) {
-        this.first.first = first;
-//        IntrusiveLinkedListNode<TYPEOF> thePrevious = first;
-//        while (thePrevious != null) {
-//            thePrevious.first = first;
-//            thePrevious = thePrevious.next;
-//        }
-    }
-
     private void resetFirst(TYPEOF first) {
         //this.first.first = first;
         IntrusiveLinkedListNode<TYPEOF> thePrevious = first;
@@ -0,0 +1,61 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongToIntOpenAddressingMapTest {
+
+    @Test
+    public void testSimpleOps(){
+        final LongToIntOpenAddressingMap map = new LongToIntOpenAddressingMap(-1);
+
+        map.put(1L, 10);
+        map.put(2L, 20);
+        map.put(1L, 0);
+
+        assertEquals(2, map.size());
+        assertEquals(0, map.get(1L));
+        assertEquals(20, map.get(2L));
+        assertEquals(-1, map.get(3L));
+
+        assertEquals(0, map.remove(1L));
+        assertEquals(-1, map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertTrue(map.containsKey(2L));
+        assertEquals(1, map.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingValueCantBeStored(){
+        new LongToIntOpenAddressingMap(-1).put(1L, -1);
+    }
+
+    @Test
+    public void testGrowsAndSurvivesRemovalsInProbeChains(){
+        final LongToIntOpenAddressingMap map = new LongToIntOpenAddressingMap(2, 0.65f, -1);
+        final HashMap<Long, Integer> expected = new HashMap<>();
+        final Random random = new Random(42);
+
+        for(int i=0; i<20_000; i++){
+            final long key = random.nextInt(2_000) - 1_000;
+            if(random.nextInt(3) == 0){
+                assertEquals((int) expected.getOrDefault(key, -1), map.remove(key));
+                expected.remove(key);
+            }else{
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for(long key=-1_000; key<1_000; key++){
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LongToObjOpenAddressingMapTest {
+
+    @Test
+    public void testSimpleOps(){
+        final LongToObjMap<String> map = new LongToObjOpenAddressingMap<>();
+
+        map.put(1L, "one");
+        map.put(2L, "two");
+        map.put(1L, "uno");
+
+        assertEquals(2, map.size());
+        assertEquals("uno", map.get(1L));
+        assertEquals("two", map.get(2L));
+        assertNull(map.get(3L));
+        assertEquals("three", map.getOrDefault(3L, "three"));
+
+        assertEquals("uno", map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertTrue(map.containsKey(2L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testGrowsAndSurvivesRemovalsInProbeChains(){
+        final LongToObjOpenAddressingMap<Long> map = new LongToObjOpenAddressingMap<>(2, 0.65f);
+        final HashMap<Long, Long> expected = new HashMap<>();
+        final Random random = new Random(42);
+
+        for(int i=0; i<20_000; i++){
+            final long key = random.nextInt(2_000) - 1_000;
+            if(random.nextInt(3) == 0){
+                assertEquals(expected.remove(key), map.remove(key));
+            }else{
+                expected.put(key, (long) i);
+                map.put(key, (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+
+        final long[] count = {0};
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+    }
+}
@@ -70,6 +70,32 @@ public class IntrusiveLinkedListTest {
         assertEquals(3, latestHead.next.next.getI());
     }
 
+    @Test
+    public void testEveryNodeFindsTheHeadAfterRepeatedInsertFirst(){
+
+        ExampleNode head = new ExampleNode(0);
+
+        for(int i=1; i<5; i++){
+            final ExampleNode node = new ExampleNode(i);
+            head.insertFirst(head, node);
+            head = node;
+        }
+
+        assertEquals(5, head.size());
+
+        for(ExampleNode node = head; node != null; node = node.next){
+            assertEquals(head, node.first());
+            assertEquals(0, node.last().getI());
+        }
+
+        //removing the deepest node must hand back the real head
+        final ExampleNode latestHead = head.last().remove();
+
+        assertEquals(4, latestHead.getI());
+        assertEquals(4, latestHead.size());
+        assertEquals(1, latestHead.last().getI());
+    }
+
     @Test
     public void testChangeLast(){
 
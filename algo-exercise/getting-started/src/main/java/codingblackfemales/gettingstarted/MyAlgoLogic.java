@@ -44,7 +44,7 @@ public class MyAlgoLogic implements AlgoLogic {
         var activeOrders = state.getActiveChildOrders();
 
         if (shouldBuy(bestBidPrice, activeOrders)) {
-            return createBuyOrder(bestBidPrice);
+            return createBuyOrder(bestBidPrice, state.getInstrumentId());
         } else if (shouldSell(bestAskPrice, activeOrders)) {
             return processSellOrder(bestAskPrice, activeOrders);
         }
@@ -57,10 +57,10 @@ public class MyAlgoLogic implements AlgoLogic {
                activeOrders.stream().noneMatch(order -> order.getPrice() == bestBidPrice && order.getSide() == Side.BUY);
     }
 
-    private Action createBuyOrder(long bestBidPrice) {
+    private Action createBuyOrder(long bestBidPrice, long instrumentId) {
         logger.info("Creating buy order at price: " + bestBidPrice);
         buyPrices.put(bestBidPrice, bestBidPrice);
-        return new CreateChildOrder(Side.BUY, MyAlgoLogicConfig.ORDER_QUANTITY, bestBidPrice);
+        return new CreateChildOrder(Side.BUY, MyAlgoLogicConfig.ORDER_QUANTITY, bestBidPrice, instrumentId);
     }
 
     private boolean shouldSell(long bestAskPrice, List<ChildOrder>activeOrders) {
@@ -39,7 +39,7 @@ public class SMAAlgoLogic implements AlgoLogic {
 
             // Trading logic based on SMA
             if (sma <= BUY_THRESHOLD) {
-                return new CreateChildOrder(Side.BUY, currentPrice, 50L);
+                return new CreateChildOrder(Side.BUY, currentPrice, 50L, state.getInstrumentId());
             } else if (sma >= SELL_THRESHOLD) {
                 if (!state.getActiveChildOrders().isEmpty()) {
                     ChildOrder orderToCancel = state.getActiveChildOrders().get(0);
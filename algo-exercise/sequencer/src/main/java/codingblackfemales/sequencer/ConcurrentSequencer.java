@@ -0,0 +1,105 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.util.MessageLengthDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A sequencer that many threads can send commands to at once (market data feed, algo actions, order book fills).
+ *
+ * Commands are appended to an Agrona {@link ManyToOneRingBuffer} without taking a lock, and a single sequencer
+ * thread drains them into the downstream sequencer (normally a {@link DefaultSequencer}), which stamps the sequence
+ * number and dispatches to the network. As only the draining thread ever touches the downstream sequencer, the
+ * sequence numbers it stamps stay monotonic.
+ *
+ * This is an Agrona {@link Agent}, so run it with an AgentRunner and the idle strategy of your choice. Consumers
+ * that send commands while they are being dispatched (e.g. the Actioner in the AlgoContainer) are queued behind the
+ * current message rather than dispatched re-entrantly.
+ */
+public class ConcurrentSequencer implements Sequencer, Agent {
+
+    public static final int DEFAULT_CAPACITY = 1024 * 1024;
+
+    private static final int COMMAND_MSG_TYPE_ID = 1;
+
+    private final Sequencer downstream;
+    private final ManyToOneRingBuffer ringBuffer;
+
+    //length decoders hold state, so each producer thread gets its own
+    private final ThreadLocal<MessageLengthDecoder> lengthDecoder = ThreadLocal.withInitial(MessageLengthDecoder::new);
+
+    private final UnsafeBuffer commandView = new UnsafeBuffer(0, 0);
+    private final MessageHandler commandHandler = this::onQueuedCommand;
+
+    private volatile Thread sequencerThread;
+
+    public ConcurrentSequencer(final Sequencer downstream) {
+        this(downstream, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity size in bytes of the queue, must be a power of two
+     */
+    public ConcurrentSequencer(final Sequencer downstream, final int capacity) {
+        this.downstream = downstream;
+        this.ringBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + RingBufferDescriptor.TRAILER_LENGTH)));
+    }
+
+    /**
+     * Queue a command, this is safe to call from any thread. If the queue is full the caller spins until the
+     * sequencer thread has made room.
+     */
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        final int length = lengthDecoder.get().length(buffer);
+
+        while(!ringBuffer.write(COMMAND_MSG_TYPE_ID, buffer, 0, length)){
+            if(Thread.currentThread() == sequencerThread){
+                //we are the only thread that can drain the queue, waiting here would never end
+                throw new IllegalStateException("Sequencer queue is full and the command was sent from the sequencer thread, increase the capacity");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void onStart() {
+        sequencerThread = Thread.currentThread();
+    }
+
+    /**
+     * Drain whatever has been queued and sequence it, returns the number of commands processed.
+     */
+    @Override
+    public int doWork() {
+        if(sequencerThread == null){
+            sequencerThread = Thread.currentThread();
+        }
+        return ringBuffer.read(commandHandler);
+    }
+
+    @Override
+    public String roleName() {
+        return "sequencer";
+    }
+
+    public long producerPosition(){
+        return ringBuffer.producerPosition();
+    }
+
+    public long consumerPosition(){
+        return ringBuffer.consumerPosition();
+    }
+
+    private void onQueuedCommand(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length){
+        commandView.wrap(buffer, index, length);
+        downstream.onCommand(commandView);
+    }
+}
@@ -1,6 +1,8 @@
 package codingblackfemales.sequencer;
 
+import codingblackfemales.sequencer.metrics.LatencyRecorder;
 import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.MessageLengthDecoder;
 import messages.marketdata.MessageHeaderDecoder;
 import messages.marketdata.MessageHeaderEncoder;
 import messages.order.CreateOrderDecoder;
@@ -15,9 +17,6 @@ public class DefaultSequencer implements Sequencer {
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
 
-    private ByteBuffer byteBuffer;//= ByteBuffer.allocateDirect(1024);
-    private UnsafeBuffer mutableBuffer;// = new UnsafeBuffer(byteBuffer);
-
     private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
     private final CreateOrderEncoder createOrderEncoder = new CreateOrderEncoder();
 
@@ -30,13 +29,44 @@ public class DefaultSequencer implements Sequencer {
 
     private final Network network;
 
+    //only set when running in ring mode, otherwise we stamp the caller's buffer in place
+    private final DispatchRing dispatchRing;
+    private final MessageLengthDecoder lengthDecoder = new MessageLengthDecoder();
+
+    //only set when latency is being measured
+    private LatencyRecorder latencyRecorder;
+    private long commandStartNanos;
+
     public DefaultSequencer(Network network) {
         this.network = network;
+        this.dispatchRing = null;
+    }
+
+    /**
+     * Ring mode, every message is copied into a pre-allocated slot of the dispatch ring before it is sequenced, so
+     * nothing is allocated per message once the sequencer is built.
+     *
+     * @param ringSize the number of slots, which is the deepest re-entrant dispatch we can support
+     */
+    public DefaultSequencer(Network network, int ringSize) {
+        this(network, ringSize, DispatchRing.DEFAULT_SLOT_CAPACITY);
+    }
+
+    public DefaultSequencer(Network network, int ringSize, int slotCapacity) {
+        this.network = network;
+        this.dispatchRing = new DispatchRing(ringSize, slotCapacity);
+    }
+
+    public void setLatencyRecorder(LatencyRecorder latencyRecorder){
+        this.latencyRecorder = latencyRecorder;
     }
 
     @Override
     public void onCommand(DirectBuffer bb) {
 
+        final long startNanos = latencyRecorder != null ? System.nanoTime() : 0;
+        commandStartNanos = startNanos;
+
         headerDecoder.wrap(bb, 0);
 
         int schemaId = headerDecoder.schemaId();
@@ -50,6 +80,9 @@ public class DefaultSequencer implements Sequencer {
             sequenceAndDispatchMessage(bb);
         }
 
+        if(latencyRecorder != null){
+            latencyRecorder.recordEndToEnd(schemaId, templateId, System.nanoTime() - startNanos);
+        }
     }
 
     public DirectBuffer processModelCommand(final DirectBuffer byteBuffer, final int schemaId, final MessageHeaderDecoder header){
@@ -62,6 +95,7 @@ public class DefaultSequencer implements Sequencer {
 
 
         createOrderEncoder.wrapAndApplyHeader(businessMutableBuffer, 0, businessHeaderEncoder);
+        createOrderEncoder.instrumentId(createOrderDecoder.instrumentId());
         createOrderEncoder.price(createOrderDecoder.price());
         createOrderEncoder.quantity(createOrderDecoder.quantity());
         createOrderEncoder.side(createOrderDecoder.side());
@@ -69,7 +103,7 @@ public class DefaultSequencer implements Sequencer {
         return businessMutableBuffer;
     }
 
-    private long orderId = 1;
+    long orderId = 1;
 
     public long newOrderId(){
         return orderId +=1;
@@ -77,10 +111,13 @@ public class DefaultSequencer implements Sequencer {
 
     public void sequenceAndDispatchMessage(final DirectBuffer bb){
 
-        byteBuffer = ByteBuffer.allocateDirect(1024);
-        mutableBuffer = new UnsafeBuffer(byteBuffer);
+        if(dispatchRing != null){
+            sequenceAndDispatchFromRing(bb);
+            return;
+        }
 
-        mutableBuffer.wrap(bb);
+        //a new wrapper per message, as a re-entrant dispatch must not re-point the buffer an outer dispatch is using
+        final UnsafeBuffer mutableBuffer = new UnsafeBuffer(bb);
 
         headerEncoder.wrap(mutableBuffer, 0);
 
@@ -91,7 +128,30 @@ public class DefaultSequencer implements Sequencer {
         dispatchToNetwork(mutableBuffer);
     }
 
+    private void sequenceAndDispatchFromRing(final DirectBuffer bb){
+
+        final UnsafeBuffer slot = dispatchRing.claim(bb, lengthDecoder.length(bb));
+
+        try {
+            headerEncoder.wrap(slot, 0);
+
+            sequencerNumber += 1;
+
+            headerEncoder.sequencerNumber(sequencerNumber);
+
+            dispatchToNetwork(slot);
+        } finally {
+            dispatchRing.release();
+        }
+    }
+
     public void dispatchToNetwork(DirectBuffer sequencedBuffer){
+        if(latencyRecorder != null){
+            //read before dispatching, a consumer can send a new command which would overwrite both
+            headerDecoder.wrap(sequencedBuffer, 0);
+            latencyRecorder.recordSequencer(headerDecoder.schemaId(), headerDecoder.templateId(), System.nanoTime() - commandStartNanos);
+        }
+
         network.dispatch(sequencedBuffer);
     }
 
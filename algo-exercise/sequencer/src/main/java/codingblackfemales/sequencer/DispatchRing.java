@@ -0,0 +1,70 @@
+package codingblackfemales.sequencer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed ring of direct buffers, allocated once up front, that the sequencer copies each message into before
+ * stamping the sequence number and dispatching it. Once built it never allocates.
+ *
+ * Dispatch is re-entrant (a consumer can send a new command while the current message is still being dispatched),
+ * so a slot is released when its dispatch returns and slots come back in the reverse order they were claimed.
+ * This means the ring can never lap a message which is still in flight, the ring size is the maximum re-entrancy
+ * depth we support.
+ */
+public class DispatchRing {
+
+    public static final int DEFAULT_SLOT_CAPACITY = 1024;
+
+    private final UnsafeBuffer[] slots;
+    private final int slotCapacity;
+
+    private int inFlight = 0;
+
+    public DispatchRing(final int ringSize, final int slotCapacity) {
+        if(ringSize <= 0){
+            throw new IllegalArgumentException("ringSize must be positive, was: " + ringSize);
+        }
+
+        this.slotCapacity = slotCapacity;
+        this.slots = new UnsafeBuffer[ringSize];
+
+        for(int i=0; i<ringSize; i++){
+            slots[i] = new UnsafeBuffer(ByteBuffer.allocateDirect(slotCapacity));
+        }
+    }
+
+    /**
+     * Claim the next free slot and copy length bytes of the message into it.
+     */
+    public UnsafeBuffer claim(final DirectBuffer message, final int length){
+        if(inFlight == slots.length){
+            throw new IllegalStateException("Dispatch ring exhausted, more than " + slots.length + " messages in flight, increase the ring size");
+        }
+
+        if(length > slotCapacity){
+            throw new IllegalArgumentException("Message of length " + length + " does not fit in slot of capacity " + slotCapacity);
+        }
+
+        final UnsafeBuffer slot = slots[inFlight++];
+        slot.putBytes(0, message, 0, length);
+        return slot;
+    }
+
+    /**
+     * Give back the most recently claimed slot, once its dispatch has returned.
+     */
+    public void release(){
+        inFlight--;
+    }
+
+    public int inFlight(){
+        return inFlight;
+    }
+
+    public int size(){
+        return slots.length;
+    }
+}
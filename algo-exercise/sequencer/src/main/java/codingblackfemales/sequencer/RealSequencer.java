@@ -1,35 +1,117 @@
 package codingblackfemales.sequencer;
 
-import codingblackfemales.sequencer.util.ByteBufferUtil;
+import codingblackfemales.sequencer.journal.JournalReader;
+import codingblackfemales.sequencer.journal.JournalWriter;
+import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.MessageLengthDecoder;
+import messages.marketdata.MessageHeaderDecoder;
 import messages.marketdata.MessageHeaderEncoder;
+import messages.order.CreateOrderDecoder;
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 
-import java.nio.ByteBuffer;
+import java.io.File;
+import java.util.Arrays;
 
-public class RealSequencer {
+/**
+ * A sequencer which journals every message before it is dispatched.
+ *
+ * Each message is copied straight into a memory-mapped journal file, stamped with its sequence number there and then
+ * dispatched to the network from the journal itself, so the message is only copied once. On restart the journal is
+ * scanned to recover the last sequence number (and the last order id handed out), so the sequence stream carries on
+ * where it stopped.
+ */
+public class RealSequencer extends DefaultSequencer implements AutoCloseable {
 
-    final ByteBuffer sequenced = ByteBuffer.allocateDirect(1024);
-    final UnsafeBuffer directBuffer = new UnsafeBuffer();
-    final MessageHeaderEncoder encoder = new MessageHeaderEncoder();
+    public static final int DEFAULT_JOURNAL_CAPACITY = 64 * 1024 * 1024;
 
-    final long sequenceNumber = 0L;
+    private final MessageHeaderEncoder encoder = new MessageHeaderEncoder();
+    private final MessageLengthDecoder lengthDecoder = new MessageLengthDecoder();
+
+    private final JournalWriter journal;
+
+    //one view per level of re-entrant dispatch, a nested message must not re-point the view an outer dispatch is using
+    private UnsafeBuffer[] views = new UnsafeBuffer[]{new UnsafeBuffer(0, 0)};
+    private int depth = 0;
+
+    public RealSequencer(final Network network, final File journalFile) {
+        this(network, journalFile, DEFAULT_JOURNAL_CAPACITY);
+    }
+
+    public RealSequencer(final Network network, final File journalFile, final int journalCapacity) {
+        super(network);
+        this.journal = new JournalWriter(journalFile, journalCapacity);
+        recover();
+    }
+
+    @Override
+    public void sequenceAndDispatchMessage(final DirectBuffer bb) {
+        processMessage(bb);
+    }
 
     public void processMessage(DirectBuffer buffer){
 
-        ByteBufferUtil.cloneInto(buffer.byteBuffer(), sequenced);
+        final int length = lengthDecoder.length(buffer);
+        final UnsafeBuffer directBuffer = nextView();
+
+        try {
+            journal.claim(length, sequencerNumber + 1, directBuffer);
+
+            sequencerNumber += 1;
+
+            directBuffer.putBytes(0, buffer, 0, length);
 
-        directBuffer.wrap(sequenced);
+            encoder.wrap(directBuffer, 0);
 
-        encoder.wrap(directBuffer, 0);
+            encoder.sequencerNumber(sequencerNumber);
 
-        encoder.sequencerNumber(sequenceNumber);
+            journal.commit();
 
-        dispatch(directBuffer);
+            dispatch(directBuffer);
+        } finally {
+            depth--;
+        }
     }
 
     public void dispatch(UnsafeBuffer buffer){
-        //TODO: Implement
+        dispatchToNetwork(buffer);
     }
 
+    public long sequenceNumber(){
+        return sequencerNumber;
+    }
+
+    public JournalWriter journal(){
+        return journal;
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    private UnsafeBuffer nextView(){
+        if(depth == views.length){
+            views = Arrays.copyOf(views, views.length * 2);
+            for(int i=depth; i<views.length; i++){
+                views[i] = new UnsafeBuffer(0, 0);
+            }
+        }
+        return views[depth++];
+    }
+
+    private void recover(){
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+
+        new JournalReader(journal.buffer()).read((sequenceNumber, timestampNanos, body, offset, length) -> {
+            header.wrap(body, offset);
+            if(isModelMessage(header.schemaId(), header.templateId())){
+                createOrder.wrap(body, offset + header.encodedLength(), header.blockLength(), header.version());
+                orderId = Math.max(orderId, createOrder.orderId());
+            }
+        });
+
+        sequencerNumber = journal.lastSequenceNumber();
+    }
 }
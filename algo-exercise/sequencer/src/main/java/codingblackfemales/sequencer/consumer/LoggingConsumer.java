@@ -1,11 +1,11 @@
 package codingblackfemales.sequencer.consumer;
 
 import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.DecodedMessage;
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
-import messages.marketdata.MessageHeaderDecoder;
 import messages.order.CancelOrderDecoder;
 import messages.order.CreateOrderDecoder;
-import messages.order.CreateOrderEncoder;
 import messages.order.FillOrderDecoder;
 import org.agrona.DirectBuffer;
 import org.slf4j.Logger;
@@ -17,43 +17,27 @@ public class LoggingConsumer implements Consumer {
 
     private static final Logger logger = LoggerFactory.getLogger(LoggingConsumer.class);
 
-    private final MessageHeaderDecoder decoder = new MessageHeaderDecoder();
-    private final BookUpdateDecoder bookUpdateDecoder = new BookUpdateDecoder();
-    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
-    private final FillOrderDecoder fillDecoder = new FillOrderDecoder();
-
-    private final CancelOrderDecoder cancelDecoder = new CancelOrderDecoder();
+    //only used when we are handed a raw buffer rather than a message the network has already decoded
+    private final DecodedMessage decoded = new DecodedMessage();
 
     @Override
     public void onMessage(final DirectBuffer buffer) {
+        onDecoded(decoded.wrap(buffer));
+    }
 
-        decoder.wrap(buffer, 0);
-
-        if (decoder.schemaId() == BookUpdateDecoder.SCHEMA_ID && decoder.templateId() == BookUpdateDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-            int bufferOffset = decoder.encodedLength();
-            bookUpdateDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] \n" + bookUpdateToString(bookUpdateDecoder));
-        } else if (decoder.schemaId() == CreateOrderEncoder.SCHEMA_ID && decoder.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-
-            int bufferOffset = decoder.encodedLength();
-            createOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] " + createOrderDecoder);
-        } else if (decoder.schemaId() == FillOrderDecoder.SCHEMA_ID && decoder.templateId() == FillOrderDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-            int bufferOffset = decoder.encodedLength();
-            fillDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] " + fillDecoder);
-        }else if (decoder.schemaId() == CancelOrderDecoder.SCHEMA_ID && decoder.templateId() == CancelOrderDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-            int bufferOffset = decoder.encodedLength();
-            cancelDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] " + cancelDecoder);
+    @Override
+    public void onDecoded(final DecodedMessage message) {
+
+        if (message.isMarketData() && message.templateId() == BookUpdateDecoder.TEMPLATE_ID) {
+            logger.info("[" + message.sequenceNumber() + "] \n" + bookUpdateToString(message.bookUpdate()));
+        } else if (message.isMarketData() && message.templateId() == BookDeltaDecoder.TEMPLATE_ID) {
+            logger.info("[" + message.sequenceNumber() + "] " + message.bookDelta());
+        } else if (message.isOrder() && message.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
+            logger.info("[" + message.sequenceNumber() + "] " + message.createOrder());
+        } else if (message.isOrder() && message.templateId() == FillOrderDecoder.TEMPLATE_ID) {
+            logger.info("[" + message.sequenceNumber() + "] " + message.fillOrder());
+        } else if (message.isOrder() && message.templateId() == CancelOrderDecoder.TEMPLATE_ID) {
+            logger.info("[" + message.sequenceNumber() + "] " + message.cancelOrder());
         }
     }
 }
@@ -1,36 +1,45 @@
 package codingblackfemales.sequencer.event;
 
 import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.DecodedMessage;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
-import messages.marketdata.MessageHeaderDecoder;
 import org.agrona.DirectBuffer;
 
 public abstract class MarketDataEventListener implements Consumer {
 
-    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
-    private final BookUpdateDecoder book = new BookUpdateDecoder();
-    private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
-    private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+    @FunctionalInterface
+    private interface Handler {
+        void onMessage(DecodedMessage message);
+    }
+
+    //only used when we are handed a raw buffer rather than a message the network has already decoded
+    private final DecodedMessage decoded = new DecodedMessage();
+
+    //indexed by template id, built once so picking the callback is a single array lookup
+    private final Handler[] handlers = new Handler[DecodedMessage.MAX_TEMPLATE_ID + 1];
+
+    protected MarketDataEventListener() {
+        handlers[BookUpdateDecoder.TEMPLATE_ID] = message -> onBookUpdate(message.bookUpdate());
+        handlers[AskBookUpdateDecoder.TEMPLATE_ID] = message -> onAskBook(message.askBookUpdate());
+        handlers[BidBookUpdateDecoder.TEMPLATE_ID] = message -> onBidBook(message.bidBookUpdate());
+        handlers[BookDeltaDecoder.TEMPLATE_ID] = message -> onBookDelta(message.bookDelta());
+    }
 
     @Override
     public void onMessage(final DirectBuffer buffer) {
-        header.wrap(buffer, 0);
-
-        final int actingBlockLength = header.blockLength();
-        final int actingVersion = header.version();
-        final int bufferOffset = header.encodedLength();
-
-        if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
-            book.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            onBookUpdate(book);
-        }else if(header.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
-            ask.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            onAskBook(ask);
-        }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
-            bid.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            onBidBook(bid);
+        onDecoded(decoded.wrap(buffer));
+    }
+
+    @Override
+    public void onDecoded(final DecodedMessage message) {
+        if(message.isMarketData() && message.isKnown()){
+            final Handler handler = handlers[message.templateId()];
+            if(handler != null){
+                handler.onMessage(message);
+            }
         }
     }
 
@@ -38,4 +47,9 @@ public abstract class MarketDataEventListener implements Consumer {
     public abstract void onAskBook(AskBookUpdateDecoder askBook);
     public abstract void onBidBook(BidBookUpdateDecoder bidBook);
 
+    /**
+     * Only the levels which changed since the last update, listeners which don't keep a book can ignore these.
+     */
+    public void onBookDelta(BookDeltaDecoder bookDelta) {}
+
 }
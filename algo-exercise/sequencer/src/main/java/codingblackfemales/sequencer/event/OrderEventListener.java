@@ -1,54 +1,44 @@
 package codingblackfemales.sequencer.event;
 
 import codingblackfemales.sequencer.net.Consumer;
-import messages.marketdata.MessageHeaderDecoder;
+import codingblackfemales.sequencer.net.DecodedMessage;
 import messages.order.*;
 import org.agrona.DirectBuffer;
 
 public abstract class OrderEventListener implements Consumer {
 
-    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    @FunctionalInterface
+    private interface Handler {
+        void onMessage(DecodedMessage message);
+    }
 
-    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
-    private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
-    private final AckedOrderDecoder ackedOrderDecoder = new AckedOrderDecoder();
-    private final CancelAckedOrderDecoder cancelAckedOrderDecoder = new CancelAckedOrderDecoder();
-    private final PendingOrderDecoder pendingOrderDecoder = new PendingOrderDecoder();
-    private final PartialFillOrderDecoder partialFillOrderDecoder = new PartialFillOrderDecoder();
-    private final FillOrderDecoder fillOrderDecoder = new FillOrderDecoder();
+    //only used when we are handed a raw buffer rather than a message the network has already decoded
+    private final DecodedMessage decoded = new DecodedMessage();
 
-    @Override
-    public void onMessage(DirectBuffer buffer){
+    //indexed by template id, built once so picking the callback is a single array lookup
+    private final Handler[] handlers = new Handler[DecodedMessage.MAX_TEMPLATE_ID + 1];
 
-        header.wrap(buffer, 0);
-
-        final int actingBlockLength = header.blockLength();
-        final int actingVersion = header.version();
-        final int bufferOffset = header.encodedLength();
+    protected OrderEventListener() {
+        handlers[CreateOrderDecoder.TEMPLATE_ID] = message -> onCreateOrder(message.createOrder());
+        handlers[CancelOrderDecoder.TEMPLATE_ID] = message -> onCancelOrder(message.cancelOrder());
+        handlers[AckedOrderDecoder.TEMPLATE_ID] = message -> onAckedOrder(message.ackedOrder());
+        handlers[CancelAckedOrderDecoder.TEMPLATE_ID] = message -> onCancelAckedOrder(message.cancelAckedOrder());
+        handlers[PendingOrderDecoder.TEMPLATE_ID] = message -> onPendingOrder(message.pendingOrder());
+        handlers[PartialFillOrderDecoder.TEMPLATE_ID] = message -> onPartialFill(message.partialFillOrder());
+        handlers[FillOrderDecoder.TEMPLATE_ID] = message -> onFill(message.fillOrder());
+    }
 
-        if(header.schemaId() == CreateOrderEncoder.SCHEMA_ID) {
+    @Override
+    public void onMessage(DirectBuffer buffer){
+        onDecoded(decoded.wrap(buffer));
+    }
 
-            if (header.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
-                createOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCreateOrder(createOrderDecoder);
-            } else if (header.templateId() == CancelOrderDecoder.TEMPLATE_ID) {
-                cancelOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCancelOrder(cancelOrderDecoder);
-            } else if (header.templateId() == AckedOrderDecoder.TEMPLATE_ID) {
-                ackedOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onAckedOrder(ackedOrderDecoder);
-            } else if (header.templateId() == CancelAckedOrderDecoder.TEMPLATE_ID) {
-                cancelAckedOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCancelAckedOrder(cancelAckedOrderDecoder);
-            } else if (header.templateId() == PendingOrderDecoder.TEMPLATE_ID) {
-                pendingOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onPendingOrder(pendingOrderDecoder);
-            } else if (header.templateId() == PartialFillOrderDecoder.TEMPLATE_ID) {
-                partialFillOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onPartialFill(partialFillOrderDecoder);
-            } else if (header.templateId() == FillOrderDecoder.TEMPLATE_ID) {
-                fillOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onFill(fillOrderDecoder);
+    @Override
+    public void onDecoded(final DecodedMessage message) {
+        if(message.isOrder() && message.isKnown()){
+            final Handler handler = handlers[message.templateId()];
+            if(handler != null){
+                handler.onMessage(message);
             }
         }
     }
@@ -0,0 +1,39 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.BitUtil;
+
+/**
+ * Layout of a record in the sequencer journal, records are written back to back from the start of the file.
+ *
+ * <pre>
+ *   0                   4                   8
+ *   +-------------------+-------------------+
+ *   |   body length     |     reserved      |
+ *   +-------------------+-------------------+
+ *   |            sequence number            |
+ *   +---------------------------------------+
+ *   |        timestamp (epoch nanos)        |
+ *   +---------------------------------------+
+ *   |    SBE message (header included)     ...
+ *   +---------------------------------------+
+ * </pre>
+ *
+ * The body length is written last with an ordered store, so a record which was only partly written when we crashed
+ * reads as a length of zero, which is also how the end of the journal is found.
+ */
+public final class JournalDescriptor {
+
+    public static final int LENGTH_OFFSET = 0;
+    public static final int SEQUENCE_NUMBER_OFFSET = 8;
+    public static final int TIMESTAMP_OFFSET = 16;
+    public static final int HEADER_LENGTH = 24;
+
+    public static final int RECORD_ALIGNMENT = 8;
+
+    private JournalDescriptor() {
+    }
+
+    public static int recordLength(final int bodyLength){
+        return BitUtil.align(HEADER_LENGTH + bodyLength, RECORD_ALIGNMENT);
+    }
+}
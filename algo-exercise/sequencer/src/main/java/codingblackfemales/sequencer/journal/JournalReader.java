@@ -0,0 +1,59 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.concurrent.AtomicBuffer;
+
+import static codingblackfemales.sequencer.journal.JournalDescriptor.*;
+
+/**
+ * Reads records out of a journal buffer in the order they were written, starting from the beginning.
+ *
+ * The reader keeps its position, so calling read again after the writer has appended more picks up where the last
+ * read stopped.
+ */
+public class JournalReader {
+
+    private final AtomicBuffer buffer;
+
+    private int position = 0;
+
+    public JournalReader(final AtomicBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Read every complete record from the current position, returns how many were read.
+     */
+    public int read(final JournalRecordHandler handler){
+        return read(handler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read up to limit complete records from the current position, returns how many were read.
+     */
+    public int read(final JournalRecordHandler handler, final int limit){
+        int count = 0;
+
+        while(count < limit && position + HEADER_LENGTH <= buffer.capacity()){
+
+            final int length = buffer.getIntVolatile(position + LENGTH_OFFSET);
+
+            if(length <= 0){
+                break;
+            }
+
+            final long sequenceNumber = buffer.getLong(position + SEQUENCE_NUMBER_OFFSET);
+            final long timestampNanos = buffer.getLong(position + TIMESTAMP_OFFSET);
+
+            handler.onRecord(sequenceNumber, timestampNanos, buffer, position + HEADER_LENGTH, length);
+
+            position += recordLength(length);
+            count++;
+        }
+
+        return count;
+    }
+
+    public int position(){
+        return position;
+    }
+}
@@ -0,0 +1,12 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.DirectBuffer;
+
+@FunctionalInterface
+public interface JournalRecordHandler {
+
+    /**
+     * Called for each record in the journal, the SBE message sits in the buffer at offset for length bytes.
+     */
+    void onRecord(long sequenceNumber, long timestampNanos, DirectBuffer buffer, int offset, int length);
+}
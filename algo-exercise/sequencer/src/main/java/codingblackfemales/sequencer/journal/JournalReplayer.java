@@ -0,0 +1,119 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.net.Network;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-drives a network (order book, market data service, order service, algo container...) from a sequencer journal,
+ * without re-running whatever produced the messages in the first place.
+ *
+ * Messages are dispatched exactly as they were sequenced, straight out of the memory-mapped journal. In
+ * {@link Mode#MAX_SPEED} they go out back to back, which tells us how much throughput the consumers can take, in
+ * {@link Mode#PACED} the gaps between the journal timestamps are reproduced against the wall clock.
+ */
+public class JournalReplayer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalReplayer.class);
+
+    //below this we spin rather than park, as parking overshoots by tens of micros
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    public enum Mode {
+        MAX_SPEED,
+        PACED
+    }
+
+    private final MappedByteBuffer mappedBuffer;
+    private final UnsafeBuffer buffer;
+    private final Network network;
+
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+
+    private Mode mode;
+    private long firstTimestampNanos;
+    private long replayStartNanos;
+
+    private long messagesReplayed;
+    private long elapsedNanos;
+
+    public JournalReplayer(final File journalFile, final Network network) {
+        this.mappedBuffer = IoUtil.mapExistingFile(journalFile, FileChannel.MapMode.READ_ONLY, "journal");
+        this.buffer = new UnsafeBuffer(mappedBuffer);
+        this.network = network;
+    }
+
+    /**
+     * Replay the whole journal from the start, returns the number of messages dispatched.
+     */
+    public long replay(final Mode mode){
+        this.mode = mode;
+        this.firstTimestampNanos = -1;
+        this.messagesReplayed = 0;
+
+        final JournalReader reader = new JournalReader(buffer);
+
+        replayStartNanos = System.nanoTime();
+        reader.read(this::onRecord);
+        elapsedNanos = System.nanoTime() - replayStartNanos;
+
+        logger.info("[JOURNAL-REPLAY] Replayed " + messagesReplayed + " messages in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+                + "ms (" + mode + "), " + (long) messagesPerSecond() + " msgs/sec");
+
+        return messagesReplayed;
+    }
+
+    public long messagesReplayed(){
+        return messagesReplayed;
+    }
+
+    public long elapsedNanos(){
+        return elapsedNanos;
+    }
+
+    public double messagesPerSecond(){
+        return elapsedNanos == 0 ? 0 : messagesReplayed * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public void close() {
+        IoUtil.unmap(mappedBuffer);
+    }
+
+    private void onRecord(final long sequenceNumber, final long timestampNanos, final DirectBuffer journal, final int offset, final int length){
+        if(mode == Mode.PACED){
+            awaitReplayTime(timestampNanos);
+        }
+
+        message.wrap(journal, offset, length);
+        network.dispatch(message);
+        messagesReplayed++;
+    }
+
+    private void awaitReplayTime(final long timestampNanos){
+        if(firstTimestampNanos == -1){
+            firstTimestampNanos = timestampNanos;
+            return;
+        }
+
+        final long dueNanos = replayStartNanos + (timestampNanos - firstTimestampNanos);
+
+        long remainingNanos;
+        while((remainingNanos = dueNanos - System.nanoTime()) > 0){
+            if(remainingNanos > SPIN_THRESHOLD_NANOS){
+                LockSupport.parkNanos(remainingNanos - SPIN_THRESHOLD_NANOS);
+            }else{
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
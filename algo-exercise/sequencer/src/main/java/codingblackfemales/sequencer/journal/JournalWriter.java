@@ -0,0 +1,109 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.OffsetEpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+
+import static codingblackfemales.sequencer.journal.JournalDescriptor.*;
+
+/**
+ * Appends records to a memory-mapped journal file of fixed capacity.
+ *
+ * Writing is a claim then a commit: claim points the caller's buffer straight at the record body in the mapped file,
+ * the caller encodes into it, and commit publishes the length. Nothing is copied on the way to disk, the OS pages the
+ * mapped file out for us.
+ *
+ * If the file already exists it is opened rather than replaced, and we scan it to find the end of the journal and
+ * the last sequence number written, so a restart carries on from where we crashed.
+ *
+ * Only one thread should write to a journal.
+ */
+public class JournalWriter implements AutoCloseable {
+
+    private final MappedByteBuffer mappedBuffer;
+    private final UnsafeBuffer buffer;
+    private final EpochNanoClock clock;
+
+    private int position;
+    private long lastSequenceNumber;
+
+    private int claimedLength = -1;
+
+    public JournalWriter(final File file, final int capacity) {
+        this(file, capacity, new OffsetEpochNanoClock());
+    }
+
+    public JournalWriter(final File file, final int capacity, final EpochNanoClock clock) {
+        this.mappedBuffer = file.exists() ? IoUtil.mapExistingFile(file, "journal") : IoUtil.mapNewFile(file, capacity);
+        this.buffer = new UnsafeBuffer(mappedBuffer);
+        this.clock = clock;
+
+        final JournalReader reader = new JournalReader(buffer);
+        reader.read((sequenceNumber, timestampNanos, body, offset, length) -> lastSequenceNumber = sequenceNumber);
+        this.position = reader.position();
+    }
+
+    /**
+     * Claim space for a record of length bytes and wrap the body over the claimed space in the journal.
+     * The record is not visible to readers until {@link #commit()} is called.
+     */
+    public void claim(final int length, final long sequenceNumber, final UnsafeBuffer body){
+        if(claimedLength != -1){
+            throw new IllegalStateException("Journal record already claimed, it must be committed before the next claim");
+        }
+
+        if(position + recordLength(length) > buffer.capacity()){
+            throw new IllegalStateException("Journal full, cannot write " + length + " bytes at position " + position + " of " + buffer.capacity());
+        }
+
+        buffer.putLong(position + SEQUENCE_NUMBER_OFFSET, sequenceNumber);
+        buffer.putLong(position + TIMESTAMP_OFFSET, clock.nanoTime());
+
+        body.wrap(buffer, position + HEADER_LENGTH, length);
+
+        claimedLength = length;
+    }
+
+    /**
+     * Publish the claimed record, after this it survives a crash of the process.
+     */
+    public void commit(){
+        if(claimedLength == -1){
+            throw new IllegalStateException("No journal record claimed");
+        }
+
+        buffer.putIntOrdered(position + LENGTH_OFFSET, claimedLength);
+        lastSequenceNumber = buffer.getLong(position + SEQUENCE_NUMBER_OFFSET);
+        position += recordLength(claimedLength);
+        claimedLength = -1;
+    }
+
+    public long lastSequenceNumber(){
+        return lastSequenceNumber;
+    }
+
+    public int position(){
+        return position;
+    }
+
+    public UnsafeBuffer buffer(){
+        return buffer;
+    }
+
+    /**
+     * Flush the mapped pages to disk, only needed if we must survive the machine going down, not just the process.
+     */
+    public void force(){
+        mappedBuffer.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        IoUtil.unmap(mappedBuffer);
+    }
+}
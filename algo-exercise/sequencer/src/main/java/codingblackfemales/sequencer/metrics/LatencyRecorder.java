@@ -0,0 +1,64 @@
+package codingblackfemales.sequencer.metrics;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * HdrHistogram latency recording for the sequencer and network, per message type (schema and template id).
+ *
+ * Three things are measured, all in nanoseconds:
+ * <ul>
+ *     <li>sequencer: from Sequencer.onCommand until the sequenced message is handed to the network</li>
+ *     <li>consumer.[name]: how long each consumer's onMessage takes</li>
+ *     <li>endToEnd: from Sequencer.onCommand until the last consumer has returned</li>
+ * </ul>
+ *
+ * Give the same recorder to the DefaultSequencer and the TestNetwork. Recording can happen on the sequencer thread
+ * while another thread takes snapshots or a {@link LatencyReporter} dumps them to a file.
+ */
+public class LatencyRecorder {
+
+    private final LatencyStage sequencer = new LatencyStage("sequencer");
+    private final LatencyStage endToEnd = new LatencyStage("endToEnd");
+    private final List<LatencyStage> consumers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register a consumer, returns the index to record its latencies against.
+     */
+    public int registerConsumer(final String name){
+        consumers.add(new LatencyStage("consumer." + name));
+        return consumers.size() - 1;
+    }
+
+    public void recordSequencer(final int schemaId, final int templateId, final long nanos){
+        sequencer.record(schemaId, templateId, nanos);
+    }
+
+    public void recordConsumer(final int consumerIndex, final int schemaId, final int templateId, final long nanos){
+        consumers.get(consumerIndex).record(schemaId, templateId, nanos);
+    }
+
+    public void recordEndToEnd(final int schemaId, final int templateId, final long nanos){
+        endToEnd.record(schemaId, templateId, nanos);
+    }
+
+    /**
+     * Everything recorded since we started, keyed by stage then message name, e.g. "endToEnd.BookUpdate" or
+     * "consumer.OrderBook.CreateOrder". Message types which have not been seen are left out.
+     */
+    public synchronized Map<String, Histogram> snapshot(){
+        final Map<String, Histogram> snapshot = new LinkedHashMap<>();
+
+        sequencer.snapshotInto(snapshot);
+        for(LatencyStage consumer : consumers){
+            consumer.snapshotInto(snapshot);
+        }
+        endToEnd.snapshotInto(snapshot);
+
+        return snapshot;
+    }
+}
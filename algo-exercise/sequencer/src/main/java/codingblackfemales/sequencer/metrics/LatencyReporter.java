@@ -0,0 +1,110 @@
+package codingblackfemales.sequencer.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.SystemEpochClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a snapshot of a {@link LatencyRecorder} to a file in the HdrHistogram log format, one tagged
+ * histogram per stage and message type, so the tails can be plotted with the usual HdrHistogram tools. Each dump is
+ * cumulative since the recorder was created.
+ *
+ * This is an Agrona {@link Agent}, run it on a slow idle strategy (e.g. SleepingMillisIdleStrategy) off the trading
+ * threads.
+ */
+public class LatencyReporter implements Agent, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyReporter.class);
+
+    private final LatencyRecorder recorder;
+    private final HistogramLogWriter writer;
+    private final EpochClock clock;
+    private final long intervalMs;
+
+    private final long startTimeMs;
+    private long nextDumpMs;
+
+    private boolean closed = false;
+
+    public LatencyReporter(final LatencyRecorder recorder, final File file, final long interval, final TimeUnit unit) throws FileNotFoundException {
+        this(recorder, file, interval, unit, SystemEpochClock.INSTANCE);
+    }
+
+    public LatencyReporter(final LatencyRecorder recorder, final File file, final long interval, final TimeUnit unit, final EpochClock clock) throws FileNotFoundException {
+        this.recorder = recorder;
+        this.writer = new HistogramLogWriter(new PrintStream(new FileOutputStream(file, true), false));
+        this.clock = clock;
+        this.intervalMs = unit.toMillis(interval);
+
+        this.startTimeMs = clock.time();
+        this.nextDumpMs = startTimeMs + intervalMs;
+
+        writer.outputLogFormatVersion();
+        writer.outputStartTime(startTimeMs);
+        writer.setBaseTime(startTimeMs);
+        writer.outputLegend();
+    }
+
+    @Override
+    public int doWork() {
+        final long nowMs = clock.time();
+
+        if(nowMs < nextDumpMs){
+            return 0;
+        }
+
+        nextDumpMs = nowMs + intervalMs;
+        dump(nowMs);
+        return 1;
+    }
+
+    /**
+     * Write the current snapshot to the file straight away.
+     */
+    public void dump(){
+        dump(clock.time());
+    }
+
+    @Override
+    public String roleName() {
+        return "latency-reporter";
+    }
+
+    @Override
+    public void onClose() {
+        close();
+    }
+
+    @Override
+    public void close() {
+        if(closed){
+            return;
+        }
+        closed = true;
+        dump();
+        writer.close();
+    }
+
+    private void dump(final long nowMs){
+        final Map<String, Histogram> snapshot = recorder.snapshot();
+
+        for(Histogram histogram : snapshot.values()){
+            histogram.setStartTimeStamp(startTimeMs);
+            histogram.setEndTimeStamp(nowMs);
+            writer.outputIntervalHistogram(histogram);
+        }
+
+        logger.debug("[LATENCY] Dumped " + snapshot.size() + " histograms");
+    }
+}
@@ -0,0 +1,101 @@
+package codingblackfemales.sequencer.metrics;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.order.*;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+
+/**
+ * The latency histograms for one stage of the pipeline (the sequencer, one consumer, end to end), one per message
+ * type. Recording is wait free and done on the hot path, the histograms are only read when a snapshot is taken.
+ */
+class LatencyStage {
+
+    static final int MAX_TEMPLATE_ID = 31;
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final int[] SCHEMA_IDS = {BookUpdateDecoder.SCHEMA_ID, CreateOrderDecoder.SCHEMA_ID};
+
+    private final String name;
+    private final Recorder[] recorders = new Recorder[SCHEMA_IDS.length * (MAX_TEMPLATE_ID + 1)];
+    private final Histogram[] cumulative = new Histogram[recorders.length];
+
+    LatencyStage(final String name) {
+        this.name = name;
+
+        for(int i=0; i<recorders.length; i++){
+            recorders[i] = new Recorder(SIGNIFICANT_DIGITS);
+            cumulative[i] = new Histogram(SIGNIFICANT_DIGITS);
+        }
+    }
+
+    void record(final int schemaId, final int templateId, final long nanos){
+        final int slot = slot(schemaId, templateId);
+        if(slot != -1){
+            recorders[slot].recordValue(nanos);
+        }
+    }
+
+    /**
+     * Fold everything recorded since the last snapshot into the running totals and add a copy of each non-empty
+     * histogram to the snapshot, keyed by stage and message name. Only one thread may take snapshots at a time.
+     */
+    void snapshotInto(final Map<String, Histogram> snapshot){
+        for(int i=0; i<recorders.length; i++){
+            cumulative[i].add(recorders[i].getIntervalHistogram());
+
+            if(cumulative[i].getTotalCount() > 0){
+                final Histogram copy = cumulative[i].copy();
+                final String key = name + "." + messageName(i);
+                copy.setTag(key);
+                snapshot.put(key, copy);
+            }
+        }
+    }
+
+    private static int slot(final int schemaId, final int templateId){
+        if(templateId < 0 || templateId > MAX_TEMPLATE_ID){
+            return -1;
+        }
+
+        for(int i=0; i<SCHEMA_IDS.length; i++){
+            if(SCHEMA_IDS[i] == schemaId){
+                return i * (MAX_TEMPLATE_ID + 1) + templateId;
+            }
+        }
+
+        return -1;
+    }
+
+    private static String messageName(final int slot){
+        final int schemaId = SCHEMA_IDS[slot / (MAX_TEMPLATE_ID + 1)];
+        final int templateId = slot % (MAX_TEMPLATE_ID + 1);
+
+        if(schemaId == BookUpdateDecoder.SCHEMA_ID){
+            switch (templateId){
+                case BookUpdateDecoder.TEMPLATE_ID: return "BookUpdate";
+                case BidBookUpdateDecoder.TEMPLATE_ID: return "BidBookUpdate";
+                case AskBookUpdateDecoder.TEMPLATE_ID: return "AskBookUpdate";
+                case BookDeltaDecoder.TEMPLATE_ID: return "BookDelta";
+            }
+        }else if(schemaId == CreateOrderDecoder.SCHEMA_ID){
+            switch (templateId){
+                case CreateOrderDecoder.TEMPLATE_ID: return "CreateOrder";
+                case CancelOrderDecoder.TEMPLATE_ID: return "CancelOrder";
+                case AckedOrderDecoder.TEMPLATE_ID: return "AckedOrder";
+                case CancelAckedOrderDecoder.TEMPLATE_ID: return "CancelAckedOrder";
+                case PartialFillOrderDecoder.TEMPLATE_ID: return "PartialFillOrder";
+                case FillOrderDecoder.TEMPLATE_ID: return "FillOrder";
+                case PendingOrderDecoder.TEMPLATE_ID: return "PendingOrder";
+            }
+        }
+
+        return "schema" + schemaId + "-template" + templateId;
+    }
+}
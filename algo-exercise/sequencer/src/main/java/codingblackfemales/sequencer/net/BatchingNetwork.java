@@ -0,0 +1,100 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.util.MessageLengthDecoder;
+import org.agrona.DirectBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A network which collects sequenced messages into batches and hands each batch to every consumer through
+ * {@link Consumer#onBatch(MessageBatch)}, so a consumer can coalesce a burst of updates rather than react to each one.
+ *
+ * A batch goes out once it holds batchSize messages, or when {@link #flush()} is called at the end of a burst.
+ * Consumers can send commands while a batch is being dispatched, the messages that come back are collected into the
+ * next batch which is dispatched as soon as the current one is done, so every consumer always sees the same order.
+ */
+public class BatchingNetwork implements Network {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_BATCH_CAPACITY = 64 * 1024;
+
+    private final List<Consumer> consumers = new ArrayList<>();
+    private final MessageLengthDecoder lengthDecoder = new MessageLengthDecoder();
+
+    private MessageBatch filling;
+    private MessageBatch dispatching;
+
+    private boolean inDispatch = false;
+
+    public BatchingNetwork() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_BATCH_CAPACITY);
+    }
+
+    /**
+     * @param batchSize the number of messages a batch holds before it is dispatched
+     * @param batchCapacity size in bytes of each batch buffer
+     */
+    public BatchingNetwork(final int batchSize, final int batchCapacity) {
+        this.filling = new MessageBatch(batchSize, batchCapacity);
+        this.dispatching = new MessageBatch(batchSize, batchCapacity);
+    }
+
+    public void addConsumer(Consumer consumer){
+        consumers.add(consumer);
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer) {
+        final int length = lengthDecoder.length(buffer);
+
+        if(!filling.append(buffer, length)){
+            if(inDispatch){
+                throw new IllegalStateException("Batch full while the previous batch is still being dispatched, increase the batch size or capacity");
+            }
+            flush();
+            if(!filling.append(buffer, length)){
+                throw new IllegalArgumentException("Message of length " + length + " does not fit in an empty batch");
+            }
+        }
+
+        if(filling.isFull() && !inDispatch){
+            flush();
+        }
+    }
+
+    /**
+     * Dispatch whatever has been collected so far, and anything consumers send while it is being dispatched.
+     */
+    public void flush(){
+        if(inDispatch){
+            //we are being called from a consumer, the outer flush picks up the rest
+            return;
+        }
+
+        inDispatch = true;
+        try {
+            while(!filling.isEmpty()){
+                final MessageBatch batch = filling;
+                filling = dispatching;
+                dispatching = batch;
+
+                for(int i=0; i<consumers.size(); i++){
+                    consumers.get(i).onBatch(batch);
+                }
+
+                for(int i=0; i<consumers.size(); i++){
+                    consumers.get(i).onCaughtUp();
+                }
+
+                batch.clear();
+            }
+        } finally {
+            inDispatch = false;
+        }
+    }
+
+    public int pending(){
+        return filling.size();
+    }
+}
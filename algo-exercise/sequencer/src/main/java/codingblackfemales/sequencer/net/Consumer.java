@@ -4,4 +4,29 @@ import org.agrona.DirectBuffer;
 
 public interface Consumer {
     public void onMessage(final DirectBuffer buffer);
+
+    /**
+     * Called by a batching network with a block of sequenced messages, by default each one is handed to
+     * {@link #onMessage(DirectBuffer)} in turn. Override to do the work once per batch rather than once per message.
+     */
+    public default void onBatch(final MessageBatch batch) {
+        for(int i=0; i<batch.size(); i++){
+            onMessage(batch.message(i));
+        }
+    }
+
+    /**
+     * Called by networks which decode each message once and share it between their consumers, the flyweight for
+     * the message is already wrapped. By default the consumer is just handed the raw buffer.
+     */
+    public default void onDecoded(final DecodedMessage message) {
+        onMessage(message.buffer());
+    }
+
+    /**
+     * Called once the network has handed us everything it had queued, so a consumer which holds messages back
+     * (e.g. to conflate them) knows it is time to pass them on. Networks call this between messages, never during one.
+     */
+    public default void onCaughtUp() {
+    }
 }
@@ -0,0 +1,175 @@
+package codingblackfemales.sequencer.net;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.order.*;
+import org.agrona.DirectBuffer;
+
+/**
+ * A sequenced message with its header decoded and the flyweight for its type already wrapped, so a network can do
+ * the decoding once and share the result with every consumer, rather than each consumer decoding the header again.
+ *
+ * The flyweight is picked through a table indexed by schema and template id, built when this is created. Messages
+ * with groups are rewound each time they are handed out, so one consumer iterating a group does not move it on for
+ * the next.
+ */
+public class DecodedMessage {
+
+    public static final int MAX_TEMPLATE_ID = 31;
+
+    @FunctionalInterface
+    private interface Wrapper {
+        void wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion);
+    }
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdate = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdate = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder bookDelta = new BookDeltaDecoder();
+
+    private final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+    private final CancelOrderDecoder cancelOrder = new CancelOrderDecoder();
+    private final AckedOrderDecoder ackedOrder = new AckedOrderDecoder();
+    private final CancelAckedOrderDecoder cancelAckedOrder = new CancelAckedOrderDecoder();
+    private final PendingOrderDecoder pendingOrder = new PendingOrderDecoder();
+    private final PartialFillOrderDecoder partialFillOrder = new PartialFillOrderDecoder();
+    private final FillOrderDecoder fillOrder = new FillOrderDecoder();
+
+    private final Wrapper[] marketDataWrappers = new Wrapper[MAX_TEMPLATE_ID + 1];
+    private final Wrapper[] orderWrappers = new Wrapper[MAX_TEMPLATE_ID + 1];
+
+    private DirectBuffer buffer;
+    private int schemaId;
+    private int templateId;
+    private boolean known;
+
+    public DecodedMessage() {
+        marketDataWrappers[BookUpdateDecoder.TEMPLATE_ID] = bookUpdate::wrap;
+        marketDataWrappers[AskBookUpdateDecoder.TEMPLATE_ID] = askBookUpdate::wrap;
+        marketDataWrappers[BidBookUpdateDecoder.TEMPLATE_ID] = bidBookUpdate::wrap;
+        marketDataWrappers[BookDeltaDecoder.TEMPLATE_ID] = bookDelta::wrap;
+
+        orderWrappers[CreateOrderDecoder.TEMPLATE_ID] = createOrder::wrap;
+        orderWrappers[CancelOrderDecoder.TEMPLATE_ID] = cancelOrder::wrap;
+        orderWrappers[AckedOrderDecoder.TEMPLATE_ID] = ackedOrder::wrap;
+        orderWrappers[CancelAckedOrderDecoder.TEMPLATE_ID] = cancelAckedOrder::wrap;
+        orderWrappers[PendingOrderDecoder.TEMPLATE_ID] = pendingOrder::wrap;
+        orderWrappers[PartialFillOrderDecoder.TEMPLATE_ID] = partialFillOrder::wrap;
+        orderWrappers[FillOrderDecoder.TEMPLATE_ID] = fillOrder::wrap;
+    }
+
+    public DecodedMessage wrap(final DirectBuffer buffer){
+        this.buffer = buffer;
+
+        header.wrap(buffer, 0);
+        schemaId = header.schemaId();
+        templateId = header.templateId();
+
+        final Wrapper wrapper = wrapperFor(schemaId, templateId);
+        known = wrapper != null;
+
+        if(known){
+            wrapper.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+        }
+
+        return this;
+    }
+
+    public DirectBuffer buffer(){
+        return buffer;
+    }
+
+    public MessageHeaderDecoder header(){
+        return header;
+    }
+
+    public int schemaId(){
+        return schemaId;
+    }
+
+    public int templateId(){
+        return templateId;
+    }
+
+    public long sequenceNumber(){
+        return header.sequencerNumber();
+    }
+
+    /**
+     * True if the message is one of ours and its flyweight has been wrapped.
+     */
+    public boolean isKnown(){
+        return known;
+    }
+
+    public boolean isMarketData(){
+        return schemaId == BookUpdateDecoder.SCHEMA_ID;
+    }
+
+    public boolean isOrder(){
+        return schemaId == CreateOrderDecoder.SCHEMA_ID;
+    }
+
+    public BookUpdateDecoder bookUpdate(){
+        return bookUpdate.sbeRewind();
+    }
+
+    public AskBookUpdateDecoder askBookUpdate(){
+        return askBookUpdate.sbeRewind();
+    }
+
+    public BidBookUpdateDecoder bidBookUpdate(){
+        return bidBookUpdate.sbeRewind();
+    }
+
+    public BookDeltaDecoder bookDelta(){
+        return bookDelta.sbeRewind();
+    }
+
+    public CreateOrderDecoder createOrder(){
+        return createOrder;
+    }
+
+    public CancelOrderDecoder cancelOrder(){
+        return cancelOrder;
+    }
+
+    public AckedOrderDecoder ackedOrder(){
+        return ackedOrder;
+    }
+
+    public CancelAckedOrderDecoder cancelAckedOrder(){
+        return cancelAckedOrder;
+    }
+
+    public PendingOrderDecoder pendingOrder(){
+        return pendingOrder;
+    }
+
+    public PartialFillOrderDecoder partialFillOrder(){
+        return partialFillOrder;
+    }
+
+    public FillOrderDecoder fillOrder(){
+        return fillOrder;
+    }
+
+    private Wrapper wrapperFor(final int schemaId, final int templateId){
+        if(templateId < 0 || templateId > MAX_TEMPLATE_ID){
+            return null;
+        }
+
+        if(schemaId == BookUpdateDecoder.SCHEMA_ID){
+            return marketDataWrappers[templateId];
+        }else if(schemaId == CreateOrderDecoder.SCHEMA_ID){
+            return orderWrappers[templateId];
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.util.MessageLengthDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.broadcast.BroadcastBufferDescriptor;
+import org.agrona.concurrent.broadcast.BroadcastTransmitter;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+
+/**
+ * A network which publishes sequenced messages into a memory-mapped broadcast file, so consumers in other JVMs on the
+ * same box (e.g. the backtest order book in one process and the algo container in another) can read them with an
+ * {@link IpcReceiver} without going through a socket.
+ *
+ * The message is copied once, into the mapped file. A broadcast never waits for its receivers, so a receiver which
+ * falls a whole buffer behind is lapped and finds out about it, size the file for the worst burst you expect.
+ *
+ * Only one thread, in one process, may dispatch to this network.
+ */
+public class IpcNetwork implements Network, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+    static final int MSG_TYPE_ID = 1;
+
+    private final MappedByteBuffer mappedBuffer;
+    private final BroadcastTransmitter transmitter;
+    private final MessageLengthDecoder lengthDecoder = new MessageLengthDecoder();
+
+    public IpcNetwork(final File file) {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity size in bytes of the broadcast buffer, must be a power of two
+     */
+    public IpcNetwork(final File file, final int capacity) {
+        //start from a clean file, receivers attached to an old one would otherwise see a stale tail
+        IoUtil.deleteIfExists(file);
+        this.mappedBuffer = IoUtil.mapNewFile(file, capacity + BroadcastBufferDescriptor.TRAILER_LENGTH);
+        this.transmitter = new BroadcastTransmitter(new UnsafeBuffer(mappedBuffer));
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer) {
+        transmitter.transmit(MSG_TYPE_ID, buffer, 0, lengthDecoder.length(buffer));
+    }
+
+    @Override
+    public void close() {
+        IoUtil.unmap(mappedBuffer);
+    }
+}
@@ -0,0 +1,86 @@
+package codingblackfemales.sequencer.net;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.broadcast.BroadcastReceiver;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the messages an {@link IpcNetwork} in another process publishes and hands them to local consumers, straight
+ * out of the mapped file.
+ *
+ * The receiver starts from the latest message, so anything published before it attached is not seen. If the
+ * publisher laps us, or overwrites a message while the consumers are still reading it, we throw rather than carry
+ * on with a gap in the sequence.
+ *
+ * This is an Agrona {@link Agent}, run it with an AgentRunner and the idle strategy of your choice.
+ */
+public class IpcReceiver implements Agent, AutoCloseable {
+
+    private final MappedByteBuffer mappedBuffer;
+    private final BroadcastReceiver receiver;
+
+    private final List<Consumer> consumers = new ArrayList<>();
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+
+    private long lappedCount;
+
+    public IpcReceiver(final File file) {
+        this.mappedBuffer = IoUtil.mapExistingFile(file, "ipc network");
+        this.receiver = new BroadcastReceiver(new UnsafeBuffer(mappedBuffer));
+        this.lappedCount = receiver.lappedCount();
+    }
+
+    public void addConsumer(Consumer consumer){
+        consumers.add(consumer);
+    }
+
+    @Override
+    public int doWork() {
+        int work = 0;
+
+        while(receiver.receiveNext()){
+            if(receiver.lappedCount() != lappedCount){
+                lappedCount = receiver.lappedCount();
+                throw new IllegalStateException("IPC receiver was lapped by the publisher, messages have been lost");
+            }
+
+            if(receiver.typeId() == IpcNetwork.MSG_TYPE_ID){
+                message.wrap(receiver.buffer(), receiver.offset(), receiver.length());
+
+                for(int i=0; i<consumers.size(); i++){
+                    consumers.get(i).onMessage(message);
+                }
+            }
+
+            if(!receiver.validate()){
+                throw new IllegalStateException("IPC message was overwritten by the publisher while it was being consumed");
+            }
+
+            work++;
+        }
+
+        if(work > 0){
+            for(int i=0; i<consumers.size(); i++){
+                consumers.get(i).onCaughtUp();
+            }
+        }
+
+        return work;
+    }
+
+    @Override
+    public String roleName() {
+        return "ipc-receiver";
+    }
+
+    @Override
+    public void close() {
+        IoUtil.unmap(mappedBuffer);
+    }
+}
@@ -0,0 +1,82 @@
+package codingblackfemales.sequencer.net;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A block of sequenced messages laid out back to back in one buffer, in sequence order.
+ *
+ * The buffer is allocated once and reused for every batch. {@link #message(int)} re-points a single view, so
+ * consumers must not hold on to a message once they have moved on to the next one.
+ */
+public class MessageBatch {
+
+    private final UnsafeBuffer buffer;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private final UnsafeBuffer view = new UnsafeBuffer(0, 0);
+
+    private int size = 0;
+    private int position = 0;
+
+    public MessageBatch(final int maxMessages, final int capacity) {
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity));
+        this.offsets = new int[maxMessages];
+        this.lengths = new int[maxMessages];
+    }
+
+    /**
+     * Copy the message onto the end of the batch, returns false if there is no room left for it.
+     */
+    public boolean append(final DirectBuffer message, final int length){
+        if(size == offsets.length || position + length > buffer.capacity()){
+            return false;
+        }
+
+        buffer.putBytes(position, message, 0, length);
+        offsets[size] = position;
+        lengths[size] = length;
+
+        position += length;
+        size++;
+
+        return true;
+    }
+
+    public DirectBuffer message(final int index){
+        view.wrap(buffer, offsets[index], lengths[index]);
+        return view;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public boolean isFull(){
+        return size == offsets.length;
+    }
+
+    public DirectBuffer buffer(){
+        return buffer;
+    }
+
+    public int offset(final int index){
+        return offsets[index];
+    }
+
+    public int length(final int index){
+        return lengths[index];
+    }
+
+    public void clear(){
+        size = 0;
+        position = 0;
+    }
+}
@@ -1,7 +1,10 @@
 package codingblackfemales.sequencer.net;
 
+import codingblackfemales.sequencer.metrics.LatencyRecorder;
 import org.agrona.DirectBuffer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -9,15 +12,77 @@ public class TestNetwork implements Network{
 
     private final List<Consumer> consumers = new LinkedList<>();
 
+    //only set when latency is being measured
+    private LatencyRecorder latencyRecorder;
+    private final List<Integer> latencyIndexes = new ArrayList<>();
+
+    //each message is decoded once for all the consumers, one per level of re-entrant dispatch so a consumer sending
+    //a command can't re-point the message the consumers after it are still to see
+    private DecodedMessage[] decoded = new DecodedMessage[]{new DecodedMessage()};
+    private int depth = 0;
+
     @Override
     public void dispatch(DirectBuffer buffer){
-        for (Consumer consumer: consumers) {
-            consumer.onMessage(buffer);
+        final DecodedMessage message = nextDecoded().wrap(buffer);
+
+        try {
+            if(latencyRecorder != null){
+                dispatchAndRecordLatency(message);
+            }else{
+                for (Consumer consumer: consumers) {
+                    consumer.onDecoded(message);
+                }
+            }
+        } finally {
+            depth--;
+        }
+
+        //nothing is ever queued here, so we have caught up as soon as the outermost dispatch is done
+        if(depth == 0){
+            for (Consumer consumer: consumers) {
+                consumer.onCaughtUp();
+            }
         }
     }
 
     public void addConsumer(Consumer consumer){
         consumers.add(consumer);
+        if(latencyRecorder != null){
+            latencyIndexes.add(latencyRecorder.registerConsumer(consumer.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Time every consumer's onMessage, consumers added before and after this call are both covered.
+     */
+    public void setLatencyRecorder(LatencyRecorder latencyRecorder){
+        this.latencyRecorder = latencyRecorder;
+        latencyIndexes.clear();
+        for (Consumer consumer: consumers) {
+            latencyIndexes.add(latencyRecorder.registerConsumer(consumer.getClass().getSimpleName()));
+        }
+    }
+
+    private void dispatchAndRecordLatency(DecodedMessage message){
+        final int schemaId = message.schemaId();
+        final int templateId = message.templateId();
+
+        int i = 0;
+        for (Consumer consumer: consumers) {
+            final long startNanos = System.nanoTime();
+            consumer.onDecoded(message);
+            latencyRecorder.recordConsumer(latencyIndexes.get(i++), schemaId, templateId, System.nanoTime() - startNanos);
+        }
+    }
+
+    private DecodedMessage nextDecoded(){
+        if(depth == decoded.length){
+            decoded = Arrays.copyOf(decoded, decoded.length * 2);
+            for(int i=depth; i<decoded.length; i++){
+                decoded[i] = new DecodedMessage();
+            }
+        }
+        return decoded[depth++];
     }
 
 }
@@ -0,0 +1,287 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.util.MessageLengthDecoder;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A network where each consumer (or group of consumers) runs on its own thread, so a slow consumer such as the
+ * LoggingConsumer does not hold up the order book or the algo.
+ *
+ * Sequenced messages are copied once into a single-producer, multi-consumer ring of fixed size slots. Each group reads
+ * the ring at its own pace with the idle strategy it was registered with (busy-spin on the trading path, back-off for
+ * logging), and the producer only waits if the slowest group is a whole ring behind, so nothing is ever dropped.
+ *
+ * Groups are independent by default and process the same message in parallel, so consumers which share mutable state
+ * (the algo container reads the market data and order services' books and order lists) must either go in the same
+ * group, or the reading group must run {@link ConsumerGroup#after(ConsumerGroup...)} the groups it reads from. That
+ * gates both ways: the reader only sees a message once those groups have finished with it, and those groups don't
+ * start the next message until the reader has finished with this one, so their state never changes under it. The
+ * groups then take turns rather than overlapping, only independent groups (logging, say) still run alongside them.
+ *
+ * Only one thread may dispatch to this network, so when consumers send commands back to the sequencer put a
+ * ConcurrentSequencer in front of it, which queues those commands and dispatches them from its own thread.
+ */
+public class ThreadedNetwork implements Network, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadedNetwork.class);
+
+    public static final int DEFAULT_SLOTS = 1024;
+    public static final int DEFAULT_SLOT_CAPACITY = 1024;
+
+    private static final int LENGTH_OFFSET = 0;
+    private static final int MESSAGE_OFFSET = BitUtil.SIZE_OF_INT;
+
+    private final UnsafeBuffer ring;
+    private final int slotCapacity;
+    private final long mask;
+    private final int slots;
+
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final IdleStrategy producerIdleStrategy;
+    private final MessageLengthDecoder lengthDecoder = new MessageLengthDecoder();
+
+    private final List<ConsumerGroup> groups = new ArrayList<>();
+    private final List<AgentRunner> runners = new ArrayList<>();
+
+    private long published = -1;
+    private long cachedGatingPosition = -1;
+
+    public ThreadedNetwork() {
+        this(DEFAULT_SLOTS, DEFAULT_SLOT_CAPACITY, new BusySpinIdleStrategy());
+    }
+
+    /**
+     * @param slots the number of messages the ring holds, must be a power of two
+     * @param slotCapacity the largest message (plus a 4 byte length) a slot can hold
+     * @param producerIdleStrategy how the dispatching thread waits when the ring is full
+     */
+    public ThreadedNetwork(final int slots, final int slotCapacity, final IdleStrategy producerIdleStrategy) {
+        if(!BitUtil.isPowerOfTwo(slots)){
+            throw new IllegalArgumentException("slots must be a power of two, was: " + slots);
+        }
+
+        this.slots = slots;
+        this.slotCapacity = slotCapacity;
+        this.mask = slots - 1;
+        this.ring = new UnsafeBuffer(ByteBuffer.allocateDirect(slots * slotCapacity));
+        this.producerIdleStrategy = producerIdleStrategy;
+    }
+
+    /**
+     * Run the consumer on a thread of its own.
+     */
+    public ConsumerGroup addConsumer(final Consumer consumer, final IdleStrategy idleStrategy){
+        return addConsumerGroup(consumer.getClass().getSimpleName(), idleStrategy, consumer);
+    }
+
+    /**
+     * Run the consumers on one thread, each message is handed to them in the order given.
+     */
+    public ConsumerGroup addConsumerGroup(final String name, final IdleStrategy idleStrategy, final Consumer... consumers){
+        checkNotStarted();
+        final ConsumerGroup group = new ConsumerGroup(name, idleStrategy, consumers);
+        groups.add(group);
+        return group;
+    }
+
+    public void start(){
+        for(ConsumerGroup group : groups){
+            final AgentRunner runner = new AgentRunner(group.idleStrategy,
+                    throwable -> logger.error("[NETWORK] Consumer " + group.name + " failed", throwable), null, group);
+            runners.add(runner);
+            AgentRunner.startOnThread(runner);
+        }
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer) {
+        final int length = lengthDecoder.length(buffer);
+
+        if(length > slotCapacity - MESSAGE_OFFSET){
+            throw new IllegalArgumentException("Message of length " + length + " does not fit in slot of capacity " + slotCapacity);
+        }
+
+        final long next = published + 1;
+        final long wrapPoint = next - slots;
+
+        if(wrapPoint > cachedGatingPosition){
+            while(wrapPoint > (cachedGatingPosition = minimumGroupPosition(next - 1))){
+                producerIdleStrategy.idle();
+            }
+            producerIdleStrategy.reset();
+        }
+
+        final int offset = slotOffset(next);
+        ring.putInt(offset + LENGTH_OFFSET, length);
+        ring.putBytes(offset + MESSAGE_OFFSET, buffer, 0, length);
+
+        published = next;
+        cursor.lazySet(next);
+    }
+
+    /**
+     * The position of the last message dispatched, messages are numbered from 0.
+     */
+    public long publishedPosition(){
+        return cursor.get();
+    }
+
+    /**
+     * The position of the last message every consumer has finished with.
+     */
+    public long consumedPosition(){
+        return minimumGroupPosition(cursor.get());
+    }
+
+    @Override
+    public void close() {
+        for(AgentRunner runner : runners){
+            runner.close();
+        }
+        runners.clear();
+    }
+
+    private void checkNotStarted(){
+        if(!runners.isEmpty()){
+            throw new IllegalStateException("Consumers must be added before the network is started");
+        }
+    }
+
+    private long minimumGroupPosition(final long minimum){
+        long position = minimum;
+        for(int i=0; i<groups.size(); i++){
+            position = Math.min(position, groups.get(i).position.get());
+        }
+        return position;
+    }
+
+    private static ConsumerGroup[] with(final ConsumerGroup[] groups, final ConsumerGroup group){
+        final ConsumerGroup[] result = Arrays.copyOf(groups, groups.length + 1);
+        result[groups.length] = group;
+        return result;
+    }
+
+    private static ConsumerGroup[] without(final ConsumerGroup[] groups, final ConsumerGroup group){
+        return Arrays.stream(groups).filter(g -> g != group).toArray(ConsumerGroup[]::new);
+    }
+
+    private int slotOffset(final long position){
+        return (int)(position & mask) * slotCapacity;
+    }
+
+    public class ConsumerGroup implements Agent {
+
+        private final String name;
+        private final IdleStrategy idleStrategy;
+        private final Consumer[] consumers;
+
+        private final AtomicLong position = new AtomicLong(-1);
+        private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+        private final DecodedMessage decoded = new DecodedMessage();
+
+        private ConsumerGroup[] dependencies = new ConsumerGroup[0];
+        //the groups which run after us, and so read our consumers' state while they work on a message
+        private ConsumerGroup[] dependants = new ConsumerGroup[0];
+
+        private ConsumerGroup(final String name, final IdleStrategy idleStrategy, final Consumer[] consumers) {
+            this.name = name;
+            this.idleStrategy = idleStrategy;
+            this.consumers = consumers;
+        }
+
+        /**
+         * Only hand this group a message once all of the given groups have finished with it, and hold those groups
+         * back from the next message until this group has finished with it too. The groups must have been added to
+         * the network before this one, so the graph can never have a cycle.
+         */
+        public ConsumerGroup after(final ConsumerGroup... groupsToWaitFor){
+            checkNotStarted();
+
+            for(ConsumerGroup dependency : groupsToWaitFor){
+                final int index = groups.indexOf(dependency);
+                if(index == -1 || index >= groups.indexOf(this)){
+                    throw new IllegalArgumentException("Group " + name + " can only run after groups added before it, not " + dependency.name);
+                }
+            }
+
+            for(ConsumerGroup dependency : dependencies){
+                dependency.dependants = without(dependency.dependants, this);
+            }
+
+            dependencies = groupsToWaitFor.clone();
+
+            for(ConsumerGroup dependency : dependencies){
+                dependency.dependants = with(dependency.dependants, this);
+            }
+            return this;
+        }
+
+        /**
+         * The position of the last message this group has finished with.
+         */
+        public long position(){
+            return position.get();
+        }
+
+        @Override
+        public int doWork() {
+            final long available = availablePosition();
+            long next = position.get() + 1;
+            int work = 0;
+
+            while(next <= available){
+                final int offset = slotOffset(next);
+                message.wrap(ring, offset + MESSAGE_OFFSET, ring.getInt(offset + LENGTH_OFFSET));
+
+                decoded.wrap(message);
+                for(Consumer consumer : consumers){
+                    consumer.onDecoded(decoded);
+                }
+
+                //release each slot as we go, so the producer (and any group after us) is never held up by the rest of
+                //our batch, except the last when a group runs after us, onCaughtUp can still change what it reads
+                if(next < available || dependants.length == 0){
+                    position.lazySet(next);
+                }
+                next++;
+                work++;
+            }
+
+            if(work > 0){
+                for(Consumer consumer : consumers){
+                    consumer.onCaughtUp();
+                }
+                position.lazySet(next - 1);
+            }
+
+            return work;
+        }
+
+        @Override
+        public String roleName() {
+            return "network-" + name;
+        }
+
+        private long availablePosition(){
+            long available = cursor.get();
+            for(ConsumerGroup dependency : dependencies){
+                available = Math.min(available, dependency.position.get());
+            }
+            //don't move on while a group after us may still be reading what we did with the last message
+            for(ConsumerGroup dependant : dependants){
+                available = Math.min(available, dependant.position.get() + 1);
+            }
+            return available;
+        }
+    }
+}
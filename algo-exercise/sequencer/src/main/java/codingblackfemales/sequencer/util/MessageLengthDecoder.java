@@ -0,0 +1,61 @@
+package codingblackfemales.sequencer.util;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.order.CreateOrderDecoder;
+import org.agrona.DirectBuffer;
+
+/**
+ * Works out how many bytes of a buffer are taken up by the SBE message at offset 0 (header included),
+ * so that callers can copy just the message rather than the whole (usually 1KB) buffer it was encoded into.
+ *
+ * Holds its own decoders, so it is not thread safe, each owner should have its own instance.
+ */
+public class MessageLengthDecoder {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder book = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder delta = new BookDeltaDecoder();
+
+    public int length(final DirectBuffer buffer){
+        return length(buffer, 0);
+    }
+
+    public int length(final DirectBuffer buffer, final int offset){
+
+        header.wrap(buffer, offset);
+
+        final int schemaId = header.schemaId();
+        final int templateId = header.templateId();
+        final int actingBlockLength = header.blockLength();
+        final int actingVersion = header.version();
+        final int bodyOffset = offset + header.encodedLength();
+
+        if(schemaId == BookUpdateDecoder.SCHEMA_ID){
+            if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+                book.wrap(buffer, bodyOffset, actingBlockLength, actingVersion);
+                return header.encodedLength() + book.sbeDecodedLength();
+            }else if(templateId == AskBookUpdateDecoder.TEMPLATE_ID){
+                ask.wrap(buffer, bodyOffset, actingBlockLength, actingVersion);
+                return header.encodedLength() + ask.sbeDecodedLength();
+            }else if(templateId == BidBookUpdateDecoder.TEMPLATE_ID){
+                bid.wrap(buffer, bodyOffset, actingBlockLength, actingVersion);
+                return header.encodedLength() + bid.sbeDecodedLength();
+            }else if(templateId == BookDeltaDecoder.TEMPLATE_ID){
+                delta.wrap(buffer, bodyOffset, actingBlockLength, actingVersion);
+                return header.encodedLength() + delta.sbeDecodedLength();
+            }
+        }else if(schemaId == CreateOrderDecoder.SCHEMA_ID){
+            //the order messages have no groups or var data, so they are just the fixed block
+            return header.encodedLength() + actingBlockLength;
+        }
+
+        //we don't know this message, so be safe and take everything we were given
+        return buffer.capacity() - offset;
+    }
+}
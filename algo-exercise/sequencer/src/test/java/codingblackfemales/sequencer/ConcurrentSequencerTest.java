@@ -0,0 +1,94 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentSequencerTest {
+
+    @Test
+    public void testManyProducersAreSequencedMonotonically() throws Exception {
+        final int producers = 3;
+        final int messagesPerProducer = 1_000;
+
+        final TestNetwork network = new TestNetwork();
+        final ConcurrentSequencer sequencer = new ConcurrentSequencer(new DefaultSequencer(network), 64 * 1024);
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final CountDownLatch allSequenced = new CountDownLatch(producers * messagesPerProducer);
+
+        network.addConsumer(buffer -> {
+            sequenceNumbers.add(header.wrap(buffer, 0).sequencerNumber());
+            allSequenced.countDown();
+        });
+
+        final AgentRunner runner = new AgentRunner(new BusySpinIdleStrategy(), Throwable::printStackTrace, null, sequencer);
+        AgentRunner.startOnThread(runner);
+
+        try {
+            final List<Thread> threads = new ArrayList<>();
+            for(int p=0; p<producers; p++){
+                final long instrumentId = p;
+                final Thread thread = new Thread(() -> {
+                    final UnsafeBuffer tick = TestMessages.tick(instrumentId);
+                    for(int i=0; i<messagesPerProducer; i++){
+                        sequencer.onCommand(tick);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for(Thread thread : threads){
+                thread.join();
+            }
+
+            assertTrue(allSequenced.await(10, TimeUnit.SECONDS));
+        } finally {
+            runner.close();
+        }
+
+        assertEquals(producers * messagesPerProducer, sequenceNumbers.size());
+        for(int i=0; i<sequenceNumbers.size(); i++){
+            assertEquals(i + 1L, sequenceNumbers.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testCommandFromConsumerIsQueuedNotReEntrant(){
+        final TestNetwork network = new TestNetwork();
+        final ConcurrentSequencer sequencer = new ConcurrentSequencer(new DefaultSequencer(network), 64 * 1024);
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final BookUpdateDecoder book = new BookUpdateDecoder();
+        final List<Long> seen = new ArrayList<>();
+
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            final long instrumentId = book.wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).instrumentId();
+            if(instrumentId == 1L){
+                sequencer.onCommand(TestMessages.tick(2L));
+            }
+            seen.add(instrumentId);
+        });
+
+        sequencer.onCommand(TestMessages.tick(1L));
+
+        //drain on this thread, the follow up command must only be dispatched after the first has finished
+        while(sequencer.doWork() > 0){}
+
+        assertEquals(List.of(1L, 2L), seen);
+    }
+}
@@ -0,0 +1,80 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class DefaultSequencerRingTest {
+
+    private static long sequenceNumberOf(final DirectBuffer buffer){
+        return new MessageHeaderDecoder().wrap(buffer, 0).sequencerNumber();
+    }
+
+    private static long instrumentIdOf(final DirectBuffer buffer){
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(buffer, 0);
+        return new BookUpdateDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).instrumentId();
+    }
+
+    @Test
+    public void testStampsCopyInRingAndLeavesCallerBufferAlone(){
+        final TestNetwork network = new TestNetwork();
+        final Sequencer sequencer = new DefaultSequencer(network, 4);
+
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final List<DirectBuffer> buffers = new ArrayList<>();
+
+        network.addConsumer(buffer -> {
+            sequenceNumbers.add(sequenceNumberOf(buffer));
+            buffers.add(buffer);
+        });
+
+        final UnsafeBuffer tick = TestMessages.tick(123L);
+
+        sequencer.onCommand(tick);
+        sequencer.onCommand(tick);
+
+        assertEquals(List.of(1L, 2L), sequenceNumbers);
+        assertEquals(0L, sequenceNumberOf(tick));
+        assertNotSame(tick, buffers.get(0));
+        assertEquals(123L, instrumentIdOf(buffers.get(0)));
+    }
+
+    @Test
+    public void testReEntrantDispatchDoesNotOverwriteMessageInFlight(){
+        final TestNetwork network = new TestNetwork();
+        final Sequencer sequencer = new DefaultSequencer(network, 2);
+
+        final UnsafeBuffer nested = TestMessages.tick(456L);
+        final List<Long> seenByLastConsumer = new ArrayList<>();
+
+        network.addConsumer(buffer -> {
+            if(instrumentIdOf(buffer) == 123L){
+                sequencer.onCommand(nested);
+            }
+        });
+        network.addConsumer(buffer -> seenByLastConsumer.add(instrumentIdOf(buffer)));
+
+        sequencer.onCommand(TestMessages.tick(123L));
+
+        assertEquals(List.of(456L, 123L), seenByLastConsumer);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRingExhaustedWhenReEntrancyIsDeeperThanRing(){
+        final TestNetwork network = new TestNetwork();
+        final Sequencer sequencer = new DefaultSequencer(network, 1);
+        final UnsafeBuffer tick = TestMessages.tick(123L);
+
+        network.addConsumer(buffer -> sequencer.onCommand(tick));
+
+        sequencer.onCommand(tick);
+    }
+}
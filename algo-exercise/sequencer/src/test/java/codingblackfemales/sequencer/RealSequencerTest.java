@@ -0,0 +1,84 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.journal.JournalReader;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.CreateOrderDecoder;
+import org.agrona.DirectBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class RealSequencerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long sequenceNumberOf(final DirectBuffer buffer){
+        return new MessageHeaderDecoder().wrap(buffer, 0).sequencerNumber();
+    }
+
+    private static long orderIdOf(final DirectBuffer buffer){
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(buffer, 0);
+        return new CreateOrderDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).orderId();
+    }
+
+    @Test
+    public void testJournalsThenDispatchesInSequence() throws Exception {
+        final File file = new File(folder.getRoot(), "sequencer.journal");
+        final TestNetwork network = new TestNetwork();
+        final List<Long> dispatched = new ArrayList<>();
+
+        network.addConsumer(buffer -> dispatched.add(sequenceNumberOf(buffer)));
+
+        try(final RealSequencer sequencer = new RealSequencer(network, file, 64 * 1024)){
+            sequencer.onCommand(TestMessages.tick(1L));
+            sequencer.onCommand(TestMessages.tick(2L));
+            sequencer.onCommand(TestMessages.tick(3L));
+
+            final List<Long> journaled = new ArrayList<>();
+            new JournalReader(sequencer.journal().buffer()).read((sequenceNumber, timestampNanos, body, offset, length) -> {
+                assertEquals(sequenceNumber, new MessageHeaderDecoder().wrap(body, offset).sequencerNumber());
+                journaled.add(sequenceNumber);
+            });
+
+            assertEquals(List.of(1L, 2L, 3L), dispatched);
+            assertEquals(List.of(1L, 2L, 3L), journaled);
+        }
+    }
+
+    @Test
+    public void testRestartRecoversSequenceNumberAndOrderId() throws Exception {
+        final File file = new File(folder.getRoot(), "sequencer.journal");
+        final TestNetwork network = new TestNetwork();
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final List<Long> orderIds = new ArrayList<>();
+
+        network.addConsumer(buffer -> {
+            sequenceNumbers.add(sequenceNumberOf(buffer));
+            if(new MessageHeaderDecoder().wrap(buffer, 0).templateId() == CreateOrderDecoder.TEMPLATE_ID){
+                orderIds.add(orderIdOf(buffer));
+            }
+        });
+
+        try(final RealSequencer sequencer = new RealSequencer(network, file, 64 * 1024)){
+            sequencer.onCommand(TestMessages.tick(1L));
+            sequencer.onCommand(TestMessages.createOrder());
+        }
+
+        try(final RealSequencer sequencer = new RealSequencer(network, file, 64 * 1024)){
+            assertEquals(2L, sequencer.sequenceNumber());
+
+            sequencer.onCommand(TestMessages.createOrder());
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), sequenceNumbers);
+        assertEquals(List.of(2L, 3L), orderIds);
+    }
+}
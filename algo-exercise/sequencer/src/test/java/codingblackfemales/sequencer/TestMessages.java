@@ -0,0 +1,68 @@
+package codingblackfemales.sequencer;
+
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.Venue;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The messages the sequencer and network tests send, encoded in one place so they all follow the schema together.
+ * Each call uses its own encoders, so it is safe from any thread.
+ */
+public final class TestMessages {
+
+    private TestMessages() {
+    }
+
+    /**
+     * A full book for the instrument, bids 100@98 and 200@95, ask 101@100, in a new buffer.
+     */
+    public static UnsafeBuffer tick(final long instrumentId){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        tick(buffer, instrumentId);
+        return buffer;
+    }
+
+    /**
+     * The same book, encoded into the buffer given, for tests which send many and don't want to allocate each one.
+     */
+    public static MutableDirectBuffer tick(final MutableDirectBuffer buffer, final long instrumentId){
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(instrumentId);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(98L).size(100L)
+                .next().price(95L).size(200L);
+
+        encoder.askBookCount(1)
+                .next().price(100L).size(101L);
+
+        return buffer;
+    }
+
+    /**
+     * A create order command, buy 50@100.
+     */
+    public static UnsafeBuffer createOrder(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder())
+                .price(100L)
+                .quantity(50L)
+                .side(Side.BUY);
+
+        return buffer;
+    }
+}
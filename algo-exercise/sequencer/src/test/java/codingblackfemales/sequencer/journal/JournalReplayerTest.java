@@ -0,0 +1,93 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JournalReplayerTest {
+
+    private static final long GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //journals count messages, one every GAP_NANOS
+    private File writeJournal(final int count){
+        final File file = new File(folder.getRoot(), "replay.journal");
+        final long[] now = {0};
+
+        try(final JournalWriter writer = new JournalWriter(file, 64 * 1024, () -> now[0])){
+            final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+            final BookUpdateEncoder encoder = new BookUpdateEncoder();
+            final UnsafeBuffer body = new UnsafeBuffer(0, 0);
+
+            for(int i=1; i<=count; i++){
+                final int length = headerEncoder.encodedLength() + BookUpdateEncoder.BLOCK_LENGTH + 2 * 4;
+
+                writer.claim(length, i, body);
+                encoder.wrapAndApplyHeader(body, 0, headerEncoder);
+                headerEncoder.sequencerNumber(i);
+                encoder.venue(Venue.XLON);
+                encoder.instrumentId(i);
+                encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+                encoder.source(Source.STREAM);
+                encoder.bidBookCount(0);
+                encoder.askBookCount(0);
+                writer.commit();
+
+                now[0] += GAP_NANOS;
+            }
+        }
+
+        return file;
+    }
+
+    private static List<Long> listenForSequenceNumbers(final TestNetwork network){
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        network.addConsumer(buffer -> sequenceNumbers.add(header.wrap(buffer, 0).sequencerNumber()));
+        return sequenceNumbers;
+    }
+
+    @Test
+    public void testReplaysEveryMessageInOrderAtMaxSpeed(){
+        final File file = writeJournal(100);
+        final TestNetwork network = new TestNetwork();
+        final List<Long> sequenceNumbers = listenForSequenceNumbers(network);
+
+        try(final JournalReplayer replayer = new JournalReplayer(file, network)){
+            assertEquals(100L, replayer.replay(JournalReplayer.Mode.MAX_SPEED));
+            assertTrue(replayer.messagesPerSecond() > 0);
+        }
+
+        assertEquals(100, sequenceNumbers.size());
+        for(int i=0; i<sequenceNumbers.size(); i++){
+            assertEquals(i + 1L, sequenceNumbers.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testPacedReplayKeepsTheGapsBetweenMessages(){
+        final File file = writeJournal(4);
+        final TestNetwork network = new TestNetwork();
+        final List<Long> sequenceNumbers = listenForSequenceNumbers(network);
+
+        try(final JournalReplayer replayer = new JournalReplayer(file, network)){
+            replayer.replay(JournalReplayer.Mode.PACED);
+            assertTrue(replayer.elapsedNanos() >= 3 * GAP_NANOS);
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequenceNumbers);
+    }
+}
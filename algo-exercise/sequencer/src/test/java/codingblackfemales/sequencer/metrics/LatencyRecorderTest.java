@@ -0,0 +1,79 @@
+package codingblackfemales.sequencer.metrics;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.TestMessages;
+import codingblackfemales.sequencer.consumer.LoggingConsumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class LatencyRecorderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static LatencyRecorder sendMessages(final int ticks, final int orders){
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+
+        network.addConsumer(new LoggingConsumer());
+        network.setLatencyRecorder(recorder);
+        sequencer.setLatencyRecorder(recorder);
+
+        final UnsafeBuffer tick = TestMessages.tick(123L);
+        final UnsafeBuffer order = TestMessages.createOrder();
+
+        for(int i=0; i<ticks; i++){
+            sequencer.onCommand(tick);
+        }
+        for(int i=0; i<orders; i++){
+            sequencer.onCommand(order);
+        }
+
+        return recorder;
+    }
+
+    @Test
+    public void testRecordsEachStagePerMessageType(){
+        final Map<String, Histogram> snapshot = sendMessages(10, 5).snapshot();
+
+        assertEquals(10, snapshot.get("sequencer.BookUpdate").getTotalCount());
+        assertEquals(10, snapshot.get("consumer.LoggingConsumer.BookUpdate").getTotalCount());
+        assertEquals(10, snapshot.get("endToEnd.BookUpdate").getTotalCount());
+
+        assertEquals(5, snapshot.get("sequencer.CreateOrder").getTotalCount());
+        assertEquals(5, snapshot.get("consumer.LoggingConsumer.CreateOrder").getTotalCount());
+        assertEquals(5, snapshot.get("endToEnd.CreateOrder").getTotalCount());
+
+        assertEquals(6, snapshot.size());
+    }
+
+    @Test
+    public void testReporterWritesReadableHistogramLog() throws Exception {
+        final File file = new File(folder.getRoot(), "latency.hlog");
+        final LatencyRecorder recorder = sendMessages(3, 0);
+
+        try(final LatencyReporter reporter = new LatencyReporter(recorder, file, 1, TimeUnit.SECONDS)){
+            reporter.dump();
+        }
+
+        final HistogramLogReader reader = new HistogramLogReader(file);
+        final Histogram first = (Histogram) reader.nextIntervalHistogram();
+
+        assertNotNull(first);
+        assertEquals("sequencer.BookUpdate", first.getTag());
+        assertEquals(3, first.getTotalCount());
+    }
+}
@@ -0,0 +1,77 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.TestMessages;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchingNetworkTest {
+
+    private static long instrumentIdOf(final DirectBuffer buffer){
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(buffer, 0);
+        return new BookUpdateDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).instrumentId();
+    }
+
+    @Test
+    public void testBatchGoesOutWhenFullOrFlushed(){
+        final BatchingNetwork network = new BatchingNetwork(3, 4096);
+        final List<Integer> batchSizes = new ArrayList<>();
+        final List<Long> messages = new ArrayList<>();
+
+        network.addConsumer(new Consumer() {
+            @Override
+            public void onMessage(DirectBuffer buffer) {
+                messages.add(instrumentIdOf(buffer));
+            }
+
+            @Override
+            public void onBatch(MessageBatch batch) {
+                batchSizes.add(batch.size());
+                Consumer.super.onBatch(batch);
+            }
+        });
+
+        for(long i=1; i<=4; i++){
+            network.dispatch(TestMessages.tick(i));
+        }
+
+        assertEquals(List.of(3), batchSizes);
+        assertEquals(1, network.pending());
+
+        network.flush();
+
+        assertEquals(List.of(3, 1), batchSizes);
+        assertEquals(List.of(1L, 2L, 3L, 4L), messages);
+    }
+
+    @Test
+    public void testCommandsSentDuringBatchGoInNextBatch(){
+        final BatchingNetwork network = new BatchingNetwork(2, 4096);
+        final Sequencer sequencer = new DefaultSequencer(network);
+        final List<Long> first = new ArrayList<>();
+        final List<Long> second = new ArrayList<>();
+
+        network.addConsumer(buffer -> {
+            final long instrumentId = instrumentIdOf(buffer);
+            if(instrumentId == 2L){
+                sequencer.onCommand(TestMessages.tick(99L));
+            }
+            first.add(instrumentId);
+        });
+        network.addConsumer(buffer -> second.add(instrumentIdOf(buffer)));
+
+        sequencer.onCommand(TestMessages.tick(1L));
+        sequencer.onCommand(TestMessages.tick(2L));
+        network.flush();
+
+        assertEquals(List.of(1L, 2L, 99L), first);
+        assertEquals(List.of(1L, 2L, 99L), second);
+    }
+}
@@ -0,0 +1,77 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.TestMessages;
+import codingblackfemales.sequencer.event.MarketDataEventListener;
+import messages.marketdata.*;
+import messages.order.PartialFillOrderEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DecodedMessageTest {
+
+    private static UnsafeBuffer createPartialFill(){
+        final messages.order.MessageHeaderEncoder headerEncoder = new messages.order.MessageHeaderEncoder();
+        final PartialFillOrderEncoder encoder = new PartialFillOrderEncoder();
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.orderId(1L).quantity(10L).price(100L);
+
+        return directBuffer;
+    }
+
+    private static class BidPriceListener extends MarketDataEventListener {
+
+        private final List<Long> bidPrices = new ArrayList<>();
+        private int bidBookUpdates = 0;
+
+        @Override
+        public void onBookUpdate(BookUpdateDecoder bookUpdate) {
+            for(BookUpdateDecoder.BidBookDecoder bid : bookUpdate.bidBook()){
+                bidPrices.add(bid.price());
+            }
+        }
+
+        @Override
+        public void onAskBook(AskBookUpdateDecoder askBook) {
+        }
+
+        @Override
+        public void onBidBook(BidBookUpdateDecoder bidBook) {
+            bidBookUpdates++;
+        }
+    }
+
+    @Test
+    public void testEveryConsumerCanIterateTheSharedFlyweight(){
+        final TestNetwork network = new TestNetwork();
+        final BidPriceListener first = new BidPriceListener();
+        final BidPriceListener second = new BidPriceListener();
+
+        network.addConsumer(first);
+        network.addConsumer(second);
+
+        network.dispatch(TestMessages.tick(123L));
+
+        assertEquals(List.of(98L, 95L), first.bidPrices);
+        assertEquals(List.of(98L, 95L), second.bidPrices);
+    }
+
+    @Test
+    public void testOrderMessageWithSameTemplateIdIsNotTakenForMarketData(){
+        final TestNetwork network = new TestNetwork();
+        final BidPriceListener listener = new BidPriceListener();
+
+        network.addConsumer(listener);
+        network.dispatch(createPartialFill());
+
+        //PartialFillOrder and BidBookUpdate are both template 9, only the schema tells them apart
+        assertEquals(0, listener.bidBookUpdates);
+    }
+}
@@ -0,0 +1,67 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.TestMessages;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class IpcNetworkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long sequenceNumberOf(final DirectBuffer buffer){
+        return new MessageHeaderDecoder().wrap(buffer, 0).sequencerNumber();
+    }
+
+    @Test
+    public void testReceiverSeesSequencedMessagesThroughTheMappedFile(){
+        final File file = new File(folder.getRoot(), "network.ipc");
+        final List<Long> received = new ArrayList<>();
+
+        try(final IpcNetwork network = new IpcNetwork(file, 64 * 1024);
+            final IpcReceiver receiver = new IpcReceiver(file)){
+
+            receiver.addConsumer(buffer -> received.add(sequenceNumberOf(buffer)));
+
+            final Sequencer sequencer = new DefaultSequencer(network);
+            sequencer.onCommand(TestMessages.tick(1L));
+            sequencer.onCommand(TestMessages.tick(2L));
+            sequencer.onCommand(TestMessages.tick(3L));
+
+            assertEquals(3, receiver.doWork());
+            assertEquals(0, receiver.doWork());
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), received);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLappedReceiverFailsRatherThanSkippingMessages(){
+        final File file = new File(folder.getRoot(), "network.ipc");
+
+        try(final IpcNetwork network = new IpcNetwork(file, 1024);
+            final IpcReceiver receiver = new IpcReceiver(file)){
+
+            receiver.addConsumer(buffer -> {});
+
+            final UnsafeBuffer tick = TestMessages.tick(1L);
+            for(int i=0; i<100; i++){
+                network.dispatch(tick);
+            }
+
+            receiver.doWork();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.TestMessages;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ThreadedNetworkTest {
+
+    private final UnsafeBuffer tick = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private static long instrumentIdOf(final DirectBuffer buffer){
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(buffer, 0);
+        return new BookUpdateDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).instrumentId();
+    }
+
+    @Test
+    public void testEveryGroupSeesEveryMessageInOrderEvenWhenSlow() throws Exception {
+        final int messages = 2_000;
+        final CountDownLatch done = new CountDownLatch(3 * messages);
+
+        final List<Long> fast = new ArrayList<>();
+        final List<Long> slow = new ArrayList<>();
+        final List<Long> grouped = new ArrayList<>();
+
+        final ThreadedNetwork network = new ThreadedNetwork(16, 256, new YieldingIdleStrategy());
+        try {
+            network.addConsumer(buffer -> {
+                fast.add(instrumentIdOf(buffer));
+                done.countDown();
+            }, new BusySpinIdleStrategy());
+
+            //a slow consumer and the one that follows it on the same thread
+            network.addConsumerGroup("slow", new BackoffIdleStrategy(),
+                    buffer -> {
+                        if(slow.size() % 500 == 0){
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                        }
+                        slow.add(instrumentIdOf(buffer));
+                        done.countDown();
+                    },
+                    buffer -> {
+                        grouped.add(instrumentIdOf(buffer));
+                        done.countDown();
+                    });
+
+            network.start();
+
+            for(long i=0; i<messages; i++){
+                network.dispatch(TestMessages.tick(tick, i));
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            network.close();
+        }
+
+        assertEquals(messages - 1L, network.consumedPosition());
+
+        for(List<Long> seen : List.of(fast, slow, grouped)){
+            assertEquals(messages, seen.size());
+            for(int i=0; i<messages; i++){
+                assertEquals(i, seen.get(i).longValue());
+            }
+        }
+    }
+
+    @Test
+    public void testGroupSeesExactlyTheStateOfTheGroupsItRunsAfter() throws Exception {
+        final int messages = 2_000;
+        final CountDownLatch done = new CountDownLatch(messages);
+
+        //stand ins for the services the algo reads from, each records the last instrument it has processed
+        final long[] marketData = {-1};
+        final long[] orders = {-1};
+        final List<Long> torn = new ArrayList<>();
+
+        final ThreadedNetwork network = new ThreadedNetwork(16, 256, new YieldingIdleStrategy());
+        try {
+            network.addConsumer(buffer -> LockSupport.parkNanos(1_000), new BackoffIdleStrategy());
+
+            final ThreadedNetwork.ConsumerGroup marketDataGroup = network.addConsumerGroup("marketdata", new BusySpinIdleStrategy(),
+                    buffer -> marketData[0] = instrumentIdOf(buffer));
+            final ThreadedNetwork.ConsumerGroup orderGroup = network.addConsumerGroup("orders", new BusySpinIdleStrategy(),
+                    buffer -> orders[0] = instrumentIdOf(buffer));
+
+            network.addConsumerGroup("algo", new BusySpinIdleStrategy(), buffer -> {
+                final long instrumentId = instrumentIdOf(buffer);
+                //neither behind (not yet applied) nor ahead (already on to the next message) while we read
+                final long before = marketData[0];
+                LockSupport.parkNanos(100);
+                if(before != instrumentId || marketData[0] != instrumentId || orders[0] != instrumentId){
+                    torn.add(instrumentId);
+                }
+                done.countDown();
+            }).after(marketDataGroup, orderGroup);
+
+            network.start();
+
+            for(long i=0; i<messages; i++){
+                network.dispatch(TestMessages.tick(tick, i));
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            network.close();
+        }
+
+        assertEquals(List.of(), torn);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGroupCannotRunAfterOneAddedLater(){
+        final ThreadedNetwork network = new ThreadedNetwork(16, 256, new YieldingIdleStrategy());
+        final ThreadedNetwork.ConsumerGroup first = network.addConsumer(buffer -> {}, new BackoffIdleStrategy());
+        final ThreadedNetwork.ConsumerGroup second = network.addConsumer(buffer -> {}, new BackoffIdleStrategy());
+
+        first.after(second);
+    }
+}